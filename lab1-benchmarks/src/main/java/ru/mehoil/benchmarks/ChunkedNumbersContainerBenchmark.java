@@ -0,0 +1,104 @@
+package ru.mehoil.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mehoil.ChunkedNumbersContainer;
+import ru.mehoil.NumbersContainer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Middle removes and inserts of {@link ChunkedNumbersContainer} against {@link NumbersContainer}.
+ * <p>
+ * {@code removeMiddle*} repeat the scenario of {@code CollectionsAnalysisLab}: ten thousand
+ * removes from the middle of a hundred thousand numbers.
+ * <p>
+ * Build with {@code mvn -pl lab1-benchmarks -am package} and run with
+ * {@code java -jar lab1-benchmarks/target/benchmarks.jar ChunkedNumbersContainerBenchmark}.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkedNumbersContainerBenchmark {
+
+    private static final int SIZE = 100_000;
+    private static final int REMOVES = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private long[] numbers;
+    private NumbersContainer plain;
+    private ChunkedNumbersContainer chunked;
+    private NumbersContainer plainScenario;
+    private ChunkedNumbersContainer chunkedScenario;
+
+    @Setup
+    public void setUp() {
+        numbers = LongStream.range(0, size).toArray();
+        plain = new NumbersContainer(numbers);
+        chunked = new ChunkedNumbersContainer(numbers);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpScenario() {
+        plainScenario = new NumbersContainer(LongStream.range(0, SIZE).toArray());
+        chunkedScenario = new ChunkedNumbersContainer(LongStream.range(0, SIZE).toArray());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int removeMiddlePlain() {
+        for (int i = 0; i < REMOVES; i++) {
+            plainScenario.remove(SIZE / 2);
+        }
+        return plainScenario.getSize();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int removeMiddleChunked() {
+        for (int i = 0; i < REMOVES; i++) {
+            chunkedScenario.remove(SIZE / 2);
+        }
+        return chunkedScenario.getSize();
+    }
+
+    @Benchmark
+    public int putAndRemoveMiddlePlain() {
+        plain.put(size / 2, 42);
+        plain.remove(size / 2);
+        return plain.getSize();
+    }
+
+    @Benchmark
+    public int putAndRemoveMiddleChunked() {
+        chunked.put(size / 2, 42);
+        chunked.remove(size / 2);
+        return chunked.getSize();
+    }
+
+    @Benchmark
+    public long getSequentialPlain() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += plain.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long getSequentialChunked() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += chunked.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.mehoil.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mehoil.CompressedNumbersContainer;
+import ru.mehoil.NumbersContainer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding a block of {@link CompressedNumbersContainer} and of reading all numbers,
+ * against an uncompressed {@link NumbersContainer}. The compressed size and ratio of each
+ * data shape are printed once per trial, before its first warmup iteration.
+ * <p>
+ * Build with {@code mvn -pl lab1-benchmarks -am package} and run with
+ * {@code java -jar lab1-benchmarks/target/benchmarks.jar CompressedNumbersContainerBenchmark}.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressedNumbersContainerBenchmark {
+
+    private static final int SIZE = 1 << 20;
+
+    public enum Shape {
+        TIMESTAMPS, COUNTERS, RANDOM
+    }
+
+    @Param({"TIMESTAMPS", "COUNTERS", "RANDOM"})
+    private Shape shape;
+
+    private CompressedNumbersContainer compressed;
+    private NumbersContainer plain;
+    private int index;
+
+    /**
+     * Builds the containers once per trial and reports the compression of the shape, which
+     * does not depend on the run, so it is printed once rather than measured.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var random = new Random(23);
+        final var numbers = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            numbers[i] = switch (shape) {
+                case TIMESTAMPS -> i == 0 ? 1_700_000_000_000L : numbers[i - 1] + 1_000 + random.nextInt(16);
+                case COUNTERS -> random.nextInt(1_000);
+                case RANDOM -> random.nextLong();
+            };
+        }
+        compressed = new CompressedNumbersContainer(numbers);
+        compressed.trimToSize();
+        plain = new NumbersContainer(numbers);
+        System.out.printf("%n%s: %d bytes compressed, ratio %.2f%n",
+                shape, compressed.getCompressedBytes(), compressed.getCompressionRatio());
+    }
+
+    /**
+     * Every call reads a number from another block, so it decodes one block.
+     */
+    @Benchmark
+    public long decodeBlock() {
+        index = (index + 129 * 128 + 1) & (SIZE - 1);
+        return compressed.get(index);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long sumCompressed() {
+        final var sum = new long[1];
+        compressed.forEach(n -> sum[0] += n);
+        return sum[0];
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long sumPlain() {
+        return plain.sum();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.mehoil.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mehoil.ConcurrentNumbersContainer;
+import ru.mehoil.NumbersContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ConcurrentNumbersContainer} against a {@link NumbersContainer}
+ * whose every call is synchronized, with four threads appending, or two threads appending
+ * while two others read the last number.
+ * <p>
+ * Build with {@code mvn -pl lab1-benchmarks -am package} and run with
+ * {@code java -jar lab1-benchmarks/target/benchmarks.jar ConcurrentNumbersContainerBenchmark}.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentNumbersContainerBenchmark {
+
+    @State(Scope.Group)
+    public static class Containers {
+
+        private final ConcurrentNumbersContainer concurrent = new ConcurrentNumbersContainer();
+        private final SynchronizedNumbersContainer synchronizedContainer = new SynchronizedNumbersContainer();
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            concurrent.clear();
+            concurrent.putLast(0);
+            synchronizedContainer.clear();
+            synchronizedContainer.putLast(0);
+        }
+    }
+
+    @Benchmark
+    @Group("concurrentAppend")
+    @GroupThreads(4)
+    public void concurrentAppend(final Containers containers) {
+        containers.concurrent.putLast(42);
+    }
+
+    @Benchmark
+    @Group("synchronizedAppend")
+    @GroupThreads(4)
+    public void synchronizedAppend(final Containers containers) {
+        containers.synchronizedContainer.putLast(42);
+    }
+
+    @Benchmark
+    @Group("concurrentMixed")
+    @GroupThreads(2)
+    public void concurrentMixedAppend(final Containers containers) {
+        containers.concurrent.putLast(42);
+    }
+
+    @Benchmark
+    @Group("concurrentMixed")
+    @GroupThreads(2)
+    public long concurrentMixedRead(final Containers containers) {
+        return containers.concurrent.getLast();
+    }
+
+    @Benchmark
+    @Group("synchronizedMixed")
+    @GroupThreads(2)
+    public void synchronizedMixedAppend(final Containers containers) {
+        containers.synchronizedContainer.putLast(42);
+    }
+
+    @Benchmark
+    @Group("synchronizedMixed")
+    @GroupThreads(2)
+    public long synchronizedMixedRead(final Containers containers) {
+        return containers.synchronizedContainer.getLast();
+    }
+
+    /**
+     * The way the container has been shared so far: every call holds the monitor.
+     */
+    private static final class SynchronizedNumbersContainer {
+
+        private final NumbersContainer container = new NumbersContainer();
+
+        synchronized void putLast(final long number) {
+            container.putLast(number);
+        }
+
+        synchronized long getLast() {
+            return container.getLast();
+        }
+
+        synchronized void clear() {
+            container.clear();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.mehoil.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mehoil.NumbersContainer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Bulk puts and middle inserts of {@link NumbersContainer}, which are bound by copying the array,
+ * in-place aggregates compared with reading every number through {@code get},
+ * and binary and text output compared with {@code toString}.
+ * <p>
+ * Build with {@code mvn -pl lab1-benchmarks -am package} and run with
+ * {@code java -jar lab1-benchmarks/target/benchmarks.jar NumbersContainerBenchmark}.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumbersContainerBenchmark {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private long[] numbers;
+    private long[] chunk;
+    private NumbersContainer container;
+
+    @Setup
+    public void setUp() {
+        numbers = LongStream.range(0, size).toArray();
+        chunk = LongStream.range(0, CHUNK_SIZE).toArray();
+        container = new NumbersContainer(numbers);
+    }
+
+    @Benchmark
+    public NumbersContainer putAll() {
+        final var result = new NumbersContainer();
+        result.putAll(numbers);
+        return result;
+    }
+
+    @Benchmark
+    public NumbersContainer putAllInChunks() {
+        final var result = new NumbersContainer();
+        for (int i = 0; i < size; i += CHUNK_SIZE) {
+            result.putAll(chunk);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public NumbersContainer putAllInChunksPresized() {
+        final var result = new NumbersContainer();
+        result.ensureCapacity(size);
+        for (int i = 0; i < size; i += CHUNK_SIZE) {
+            result.putAll(chunk);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long putAndRemoveMiddle() {
+        final int middle = container.getSize() / 2;
+        container.put(middle, 42);
+        container.remove(middle);
+        return container.getSize();
+    }
+
+    @Benchmark
+    public long sum() {
+        return container.sum();
+    }
+
+    @Benchmark
+    public long sumThroughGet() {
+        long sum = 0;
+        for (int i = 0; i < container.getSize(); i++) {
+            sum += container.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long streamSum() {
+        return container.stream().sum();
+    }
+
+    @Benchmark
+    public long parallelStreamSum() {
+        return container.parallelStream().sum();
+    }
+
+    @Benchmark
+    public long max() {
+        return container.max();
+    }
+
+    @Benchmark
+    public int indexOfMissing() {
+        return container.indexOf(-1);
+    }
+
+    @Benchmark
+    public WritableByteChannel writeToChannel() throws IOException {
+        final var channel = new DiscardingChannel();
+        container.writeTo(channel);
+        return channel;
+    }
+
+    @Benchmark
+    public Writer appendToWriter() throws IOException {
+        final var writer = Writer.nullWriter();
+        container.appendTo(writer);
+        return writer;
+    }
+
+    @Benchmark
+    public int toStringLength() {
+        return container.toString().length();
+    }
+
+    private static final class DiscardingChannel implements WritableByteChannel {
+
+        @Override
+        public int write(final ByteBuffer source) {
+            final int length = source.remaining();
+            source.position(source.limit());
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package ru.mehoil;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Keeps numbers of type long in blocks of at most {@value #BLOCK_CAPACITY} numbers, so that
+ * inserts and removes in the middle shift one block instead of the whole tail.
+ * <p>
+ * A small index keeps the position of the first number of every block; {@link #get(int)}
+ * finds the block by binary search over it and remembers the last block until the next change,
+ * so reading in order skips the search. A middle edit shifts numbers within one block and
+ * updates the positions of the following blocks, which is about the square root of the size
+ * for a million numbers. A full block is split in halves; a block is merged with its neighbour
+ * once both fit in half a block, so blocks are neither split nor merged back and forth.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public class ChunkedNumbersContainer {
+
+    static final int BLOCK_CAPACITY = 1024;
+    private static final int INITIAL_BLOCKS = 8;
+
+    private long[][] blocks = new long[INITIAL_BLOCKS][];
+    private int[] blockSizes = new int[INITIAL_BLOCKS];
+    // Index of the first number of every block
+    private int[] blockStarts = new int[INITIAL_BLOCKS];
+    private int blockCount = 0;
+    private int currentSize = 0;
+    // Block of the last lookup, dropped on every change
+    private long[] cachedBlock = null;
+    private int cachedStart = 0;
+    private int cachedEnd = 0;
+
+    public ChunkedNumbersContainer(final long[] numbers) {
+        putAll(numbers);
+    }
+
+    public ChunkedNumbersContainer() {
+    }
+
+    public void put(final int index, final long number) {
+        validateIndex(index, currentSize);
+        if (index == currentSize) {
+            putLast(number);
+            return;
+        }
+        dropCache();
+
+        int block = blockOf(index);
+        int offset = index - blockStarts[block];
+        if (blockSizes[block] == BLOCK_CAPACITY) {
+            split(block);
+            if (offset >= blockSizes[block]) {
+                offset -= blockSizes[block];
+                block++;
+            }
+        }
+        final long[] numbers = blocks[block];
+        System.arraycopy(numbers, offset, numbers, offset + 1, blockSizes[block] - offset);
+        numbers[offset] = number;
+        blockSizes[block]++;
+        shiftStarts(block + 1, 1);
+        currentSize++;
+    }
+
+    public void putFirst(final long number) {
+        put(0, number);
+    }
+
+    public void putLast(final long number) {
+        if (currentSize == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
+        }
+        dropCache();
+        if (blockCount == 0 || blockSizes[blockCount - 1] == BLOCK_CAPACITY) {
+            insertBlock(blockCount, new long[BLOCK_CAPACITY], 0);
+        }
+        final int block = blockCount - 1;
+        blocks[block][blockSizes[block]++] = number;
+        currentSize++;
+    }
+
+    public void putAll(final long[] numbers) {
+        if (numbers.length > Integer.MAX_VALUE - currentSize) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
+        }
+        dropCache();
+        int from = 0;
+        while (from < numbers.length) {
+            if (blockCount == 0 || blockSizes[blockCount - 1] == BLOCK_CAPACITY) {
+                insertBlock(blockCount, new long[BLOCK_CAPACITY], 0);
+            }
+            final int block = blockCount - 1;
+            final int length = Math.min(BLOCK_CAPACITY - blockSizes[block], numbers.length - from);
+            System.arraycopy(numbers, from, blocks[block], blockSizes[block], length);
+            blockSizes[block] += length;
+            currentSize += length;
+            from += length;
+        }
+    }
+
+    public void remove(final int index) {
+        validateIndex(index, currentSize - 1);
+        dropCache();
+        final int block = blockOf(index);
+        final int offset = index - blockStarts[block];
+        final long[] numbers = blocks[block];
+        System.arraycopy(numbers, offset + 1, numbers, offset, blockSizes[block] - offset - 1);
+        blockSizes[block]--;
+        shiftStarts(block + 1, -1);
+        currentSize--;
+
+        if (blockSizes[block] == 0) {
+            removeBlock(block);
+        } else if (block + 1 < blockCount && blockSizes[block] + blockSizes[block + 1] <= BLOCK_CAPACITY / 2) {
+            merge(block);
+        } else if (block > 0 && blockSizes[block - 1] + blockSizes[block] <= BLOCK_CAPACITY / 2) {
+            merge(block - 1);
+        }
+    }
+
+    public void removeFirst() {
+        remove(0);
+    }
+
+    public void removeLast() {
+        if (currentSize < 1) {
+            throw new IllegalArgumentException("The array is empty");
+        }
+        remove(currentSize - 1);
+    }
+
+    public long get(final int index) {
+        if (index >= cachedStart && index < cachedEnd) {
+            return cachedBlock[index - cachedStart];
+        }
+        validateIndex(index, currentSize - 1);
+        final int block = blockOf(index);
+        cachedBlock = blocks[block];
+        cachedStart = blockStarts[block];
+        cachedEnd = cachedStart + blockSizes[block];
+        return cachedBlock[index - cachedStart];
+    }
+
+    public long getFirst() {
+        return get(0);
+    }
+
+    public long getLast() {
+        return get(currentSize - 1);
+    }
+
+    public int getSize() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    public void clear() {
+        blocks = new long[INITIAL_BLOCKS][];
+        blockSizes = new int[INITIAL_BLOCKS];
+        blockStarts = new int[INITIAL_BLOCKS];
+        blockCount = 0;
+        currentSize = 0;
+        dropCache();
+    }
+
+    public void forEach(final LongConsumer action) {
+        for (int i = 0; i < blockCount; i++) {
+            final long[] numbers = blocks[i];
+            for (int j = 0; j < blockSizes[i]; j++) {
+                action.accept(numbers[j]);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        final var result = new long[currentSize];
+        for (int i = 0; i < blockCount; i++) {
+            System.arraycopy(blocks[i], 0, result, blockStarts[i], blockSizes[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof final ChunkedNumbersContainer other)) {
+            return false;
+        }
+
+        return Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        final int[] result = {currentSize};
+        forEach(number -> result[0] = 31 * result[0] + Long.hashCode(number));
+        return result[0];
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * @return index of the block that holds the number at the given index
+     */
+    private int blockOf(final int index) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (blockStarts[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private void dropCache() {
+        cachedBlock = null;
+        cachedStart = 0;
+        cachedEnd = 0;
+    }
+
+    private void split(final int block) {
+        final int half = blockSizes[block] / 2;
+        final var upper = new long[BLOCK_CAPACITY];
+        System.arraycopy(blocks[block], half, upper, 0, blockSizes[block] - half);
+        insertBlock(block + 1, upper, blockSizes[block] - half);
+        blockSizes[block] = half;
+        blockStarts[block + 1] = blockStarts[block] + half;
+    }
+
+    private void merge(final int block) {
+        System.arraycopy(blocks[block + 1], 0, blocks[block], blockSizes[block], blockSizes[block + 1]);
+        blockSizes[block] += blockSizes[block + 1];
+        removeBlock(block + 1);
+    }
+
+    private void insertBlock(final int block, final long[] numbers, final int size) {
+        if (blockCount == blocks.length) {
+            final int newLength = blockCount + (blockCount >> 1) + 1;
+            blocks = Arrays.copyOf(blocks, newLength);
+            blockSizes = Arrays.copyOf(blockSizes, newLength);
+            blockStarts = Arrays.copyOf(blockStarts, newLength);
+        }
+        System.arraycopy(blocks, block, blocks, block + 1, blockCount - block);
+        System.arraycopy(blockSizes, block, blockSizes, block + 1, blockCount - block);
+        System.arraycopy(blockStarts, block, blockStarts, block + 1, blockCount - block);
+        blocks[block] = numbers;
+        blockSizes[block] = size;
+        blockStarts[block] = block == 0 ? 0 : blockStarts[block - 1] + blockSizes[block - 1];
+        blockCount++;
+    }
+
+    private void removeBlock(final int block) {
+        System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+        System.arraycopy(blockSizes, block + 1, blockSizes, block, blockCount - block - 1);
+        System.arraycopy(blockStarts, block + 1, blockStarts, block, blockCount - block - 1);
+        blockCount--;
+        blocks[blockCount] = null;
+    }
+
+    private void shiftStarts(final int fromBlock, final int delta) {
+        for (int i = fromBlock; i < blockCount; i++) {
+            blockStarts[i] += delta;
+        }
+    }
+
+    private static void validateIndex(final int index, final int maxIndex) {
+        if (index < 0 || index > maxIndex) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package ru.mehoil;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Append-only container which compresses numbers of type long in blocks of {@value #BLOCK_SIZE}.
+ * <p>
+ * A full block is stored as its first number, the smallest difference between neighbouring
+ * numbers and the other differences minus the smallest one, packed with as many bits as the
+ * largest of them needs. Sorted timestamps and small counters take a few bits per number instead
+ * of 64. Numbers of the last block are kept as they are until the block is full.
+ * <p>
+ * {@link #get(int)} decodes the whole block that holds the number and keeps it, so reading
+ * numbers in order decodes every block once. Since it changes the kept block, the container is
+ * not thread-safe even for reads: threads that share it must synchronize their calls of
+ * {@link #get(int)}, while {@link #forEach(LongConsumer)} and {@link #toArray()} decode into
+ * arrays of their own.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public class CompressedNumbersContainer {
+
+    static final int BLOCK_SHIFT = 7;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int INITIAL_BLOCKS = 8;
+    private static final int BLOCK_HEADER_BYTES = 2 * Long.BYTES + Integer.BYTES + 1;
+
+    // Packed differences of all blocks, and per block: where they start, their width,
+    // the first number and the smallest difference
+    private long[] words = new long[INITIAL_BLOCKS * 4];
+    private int wordCount = 0;
+    private int[] offsets = new int[INITIAL_BLOCKS];
+    private byte[] widths = new byte[INITIAL_BLOCKS];
+    private long[] firsts = new long[INITIAL_BLOCKS];
+    private long[] minDeltas = new long[INITIAL_BLOCKS];
+    private int blockCount = 0;
+
+    private final long[] tail = new long[BLOCK_SIZE];
+    private int tailSize = 0;
+
+    // Block decoded by the last get, not safe to share between threads
+    private final long[] decoded = new long[BLOCK_SIZE];
+    private int decodedBlock = -1;
+
+    public CompressedNumbersContainer(final long[] numbers) {
+        putAll(numbers);
+    }
+
+    public CompressedNumbersContainer() {
+    }
+
+    public void putLast(final long number) {
+        tail[tailSize++] = number;
+        if (tailSize == BLOCK_SIZE) {
+            encodeTail();
+        }
+    }
+
+    public void putAll(final long[] numbers) {
+        int from = 0;
+        while (from < numbers.length) {
+            final int length = Math.min(BLOCK_SIZE - tailSize, numbers.length - from);
+            System.arraycopy(numbers, from, tail, tailSize, length);
+            tailSize += length;
+            from += length;
+            if (tailSize == BLOCK_SIZE) {
+                encodeTail();
+            }
+        }
+    }
+
+    public long get(final int index) {
+        if (index < 0 || index >= getSize()) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+        final int block = index >>> BLOCK_SHIFT;
+        if (block == blockCount) {
+            return tail[index & (BLOCK_SIZE - 1)];
+        }
+        if (block != decodedBlock) {
+            decodeBlock(block, decoded);
+            decodedBlock = block;
+        }
+        return decoded[index & (BLOCK_SIZE - 1)];
+    }
+
+    public long getFirst() {
+        return get(0);
+    }
+
+    public long getLast() {
+        return get(getSize() - 1);
+    }
+
+    public int getSize() {
+        return (blockCount << BLOCK_SHIFT) + tailSize;
+    }
+
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    public void clear() {
+        words = new long[INITIAL_BLOCKS * 4];
+        wordCount = 0;
+        offsets = new int[INITIAL_BLOCKS];
+        widths = new byte[INITIAL_BLOCKS];
+        firsts = new long[INITIAL_BLOCKS];
+        minDeltas = new long[INITIAL_BLOCKS];
+        blockCount = 0;
+        tailSize = 0;
+        decodedBlock = -1;
+    }
+
+    public void forEach(final LongConsumer action) {
+        final var block = new long[BLOCK_SIZE];
+        for (int i = 0; i < blockCount; i++) {
+            decodeBlock(i, block);
+            for (final long number : block) {
+                action.accept(number);
+            }
+        }
+        for (int i = 0; i < tailSize; i++) {
+            action.accept(tail[i]);
+        }
+    }
+
+    public long[] toArray() {
+        final var result = new long[getSize()];
+        final var block = new long[BLOCK_SIZE];
+        for (int i = 0; i < blockCount; i++) {
+            decodeBlock(i, block);
+            System.arraycopy(block, 0, result, i << BLOCK_SHIFT, BLOCK_SIZE);
+        }
+        System.arraycopy(tail, 0, result, blockCount << BLOCK_SHIFT, tailSize);
+        return result;
+    }
+
+    /**
+     * @return bytes taken by the encoded blocks, their headers and the last block
+     */
+    public long getCompressedBytes() {
+        return (long) wordCount * Long.BYTES + (long) blockCount * BLOCK_HEADER_BYTES + (long) tailSize * Long.BYTES;
+    }
+
+    /**
+     * @return how many times less memory the numbers take than in a {@code long[]}
+     */
+    public double getCompressionRatio() {
+        final long compressed = getCompressedBytes();
+        return compressed == 0 ? 1 : (double) getSize() * Long.BYTES / compressed;
+    }
+
+    /**
+     * Shrinks the arrays to the blocks they hold.
+     */
+    public void trimToSize() {
+        words = Arrays.copyOf(words, wordCount);
+        offsets = Arrays.copyOf(offsets, blockCount);
+        widths = Arrays.copyOf(widths, blockCount);
+        firsts = Arrays.copyOf(firsts, blockCount);
+        minDeltas = Arrays.copyOf(minDeltas, blockCount);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void encodeTail() {
+        long minDelta = Long.MAX_VALUE;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            minDelta = Math.min(minDelta, tail[i] - tail[i - 1]);
+        }
+        long bits = 0;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            bits |= tail[i] - tail[i - 1] - minDelta;
+        }
+        final int width = Long.SIZE - Long.numberOfLeadingZeros(bits);
+        final int blockWords = ((BLOCK_SIZE - 1) * width + Long.SIZE - 1) >>> 6;
+
+        ensureBlockCapacity(blockWords);
+        offsets[blockCount] = wordCount;
+        widths[blockCount] = (byte) width;
+        firsts[blockCount] = tail[0];
+        minDeltas[blockCount] = minDelta;
+        if (width > 0) {
+            for (int i = 1; i < BLOCK_SIZE; i++) {
+                final long delta = tail[i] - tail[i - 1] - minDelta;
+                final long position = (long) (i - 1) * width;
+                final int word = wordCount + (int) (position >>> 6);
+                final int shift = (int) (position & 63);
+                words[word] |= delta << shift;
+                if (shift + width > Long.SIZE) {
+                    words[word + 1] |= delta >>> (Long.SIZE - shift);
+                }
+            }
+        }
+        wordCount += blockWords;
+        blockCount++;
+        tailSize = 0;
+    }
+
+    private void decodeBlock(final int block, final long[] target) {
+        final int width = widths[block];
+        final long minDelta = minDeltas[block];
+        final int offset = offsets[block];
+        final long mask = width == Long.SIZE ? -1L : (1L << width) - 1;
+        long number = firsts[block];
+        target[0] = number;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            long delta = 0;
+            if (width > 0) {
+                final int position = (i - 1) * width;
+                final int word = offset + (position >>> 6);
+                final int shift = position & 63;
+                delta = words[word] >>> shift;
+                if (shift + width > Long.SIZE) {
+                    delta |= words[word + 1] << (Long.SIZE - shift);
+                }
+                delta &= mask;
+            }
+            number += minDelta + delta;
+            target[i] = number;
+        }
+    }
+
+    private void ensureBlockCapacity(final int blockWords) {
+        if (blockCount == offsets.length) {
+            if (blockCount > (Integer.MAX_VALUE >>> BLOCK_SHIFT) - 2) {
+                throw new IllegalArgumentException("The array size exceeds its maximum size");
+            }
+            final int newBlocks = blockCount + (blockCount >> 1) + 1;
+            offsets = Arrays.copyOf(offsets, newBlocks);
+            widths = Arrays.copyOf(widths, newBlocks);
+            firsts = Arrays.copyOf(firsts, newBlocks);
+            minDeltas = Arrays.copyOf(minDeltas, newBlocks);
+        }
+        if (wordCount + blockWords > words.length) {
+            words = Arrays.copyOf(words, Math.max(wordCount + blockWords, words.length + (words.length >> 1)));
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package ru.mehoil;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe counterpart of {@link NumbersContainer} for numbers shared between threads.
+ * <p>
+ * Numbers are kept in buckets whose lengths are growing powers of two, so buckets are never
+ * copied to grow. Appends share the read mode of a {@link StampedLock}, so they wait for inserts
+ * and removes in the middle, which take the write mode, but not for each other: they reserve their
+ * slots with a compare-and-set of the tail, and an append that finishes before an earlier one
+ * leaves its slots for the earlier one to publish, so readers only see numbers without gaps.
+ * {@link #get(int)} reads optimistically and takes the read mode only if a write interfered;
+ * {@link #getSize()} is a single volatile read.
+ * <p>
+ * {@link #iterator()} returns a snapshot which is not affected by later changes. It keeps
+ * references to the buckets, and writers copy a bucket before changing it in place if a snapshot
+ * has been taken since the bucket was last copied.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public class ConcurrentNumbersContainer {
+
+    private static final int FIRST_BUCKET_SHIFT = 5;
+    private static final int FIRST_BUCKET_SIZE = 1 << FIRST_BUCKET_SHIFT;
+    private static final int BUCKET_COUNT = Integer.SIZE - 1 - FIRST_BUCKET_SHIFT;
+    private static final int MAX_SIZE = Integer.MAX_VALUE - FIRST_BUCKET_SIZE + 1;
+
+    private final StampedLock lock = new StampedLock();
+    private final AtomicReferenceArray<long[]> buckets = new AtomicReferenceArray<>(BUCKET_COUNT);
+    // Snapshot epoch in which a bucket was last copied, guarded by the write mode
+    private final int[] bucketEpochs = new int[BUCKET_COUNT];
+    private final AtomicInteger epoch = new AtomicInteger();
+    private final AtomicInteger reserved = new AtomicInteger();
+    // Appended ranges waiting for earlier appends, from the first index to the end
+    private final Map<Integer, Integer> pending = new ConcurrentHashMap<>();
+    private volatile int currentSize = 0;
+
+    public ConcurrentNumbersContainer(final long[] numbers) {
+        this();
+        putAll(numbers);
+    }
+
+    public ConcurrentNumbersContainer() {
+        Arrays.fill(bucketEpochs, -1);
+    }
+
+    public void put(final int index, final long number) {
+        final long stamp = lock.writeLock();
+        try {
+            validateIndex(index, currentSize);
+            final int newSize = currentSize + 1;
+            if (newSize > MAX_SIZE) {
+                throw new IllegalArgumentException("The array size exceeds its maximum size");
+            }
+
+            long carry = number;
+            int cursor = index;
+            while (cursor < newSize) {
+                final long[] bucket = writableBucket(bucketOf(cursor));
+                final int offset = offsetOf(cursor);
+                final int length = Math.min(bucket.length - offset, newSize - cursor);
+                final long last = bucket[offset + length - 1];
+                System.arraycopy(bucket, offset, bucket, offset + 1, length - 1);
+                bucket[offset] = carry;
+                carry = last;
+                cursor += length;
+            }
+            reserved.set(newSize);
+            currentSize = newSize;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void putFirst(final long number) {
+        put(0, number);
+    }
+
+    public void putLast(final long number) {
+        final long stamp = lock.readLock();
+        try {
+            final int index = reserve(1);
+            try {
+                bucket(bucketOf(index))[offsetOf(index)] = number;
+            } finally {
+                publish(index, index + 1);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void putAll(final long[] numbers) {
+        if (numbers.length == 0) {
+            return;
+        }
+        final long stamp = lock.readLock();
+        try {
+            final int start = reserve(numbers.length);
+            try {
+                int cursor = start;
+                int from = 0;
+                while (from < numbers.length) {
+                    final long[] bucket = bucket(bucketOf(cursor));
+                    final int offset = offsetOf(cursor);
+                    final int length = Math.min(bucket.length - offset, numbers.length - from);
+                    System.arraycopy(numbers, from, bucket, offset, length);
+                    from += length;
+                    cursor += length;
+                }
+            } finally {
+                publish(start, start + numbers.length);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void remove(final int index) {
+        final long stamp = lock.writeLock();
+        try {
+            validateIndex(index, currentSize - 1);
+            final int last = currentSize - 1;
+
+            int cursor = index;
+            while (cursor < last) {
+                final long[] bucket = writableBucket(bucketOf(cursor));
+                final int offset = offsetOf(cursor);
+                final int length = Math.min(bucket.length - offset, last - cursor);
+                System.arraycopy(bucket, offset + 1, bucket, offset, length - 1);
+                final int next = cursor + length;
+                bucket[offset + length - 1] = buckets.get(bucketOf(next))[offsetOf(next)];
+                cursor = next;
+            }
+            truncate();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void removeFirst() {
+        remove(0);
+    }
+
+    public void removeLast() {
+        final long stamp = lock.writeLock();
+        try {
+            if (currentSize < 1) {
+                throw new IllegalArgumentException("The array is empty");
+            }
+            truncate();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public long get(final int index) {
+        long stamp = lock.tryOptimisticRead();
+        final int size = currentSize;
+        final long[] bucket = index >= 0 && index < size ? buckets.get(bucketOf(index)) : null;
+        final long number = bucket == null ? 0 : bucket[offsetOf(index)];
+        if (lock.validate(stamp)) {
+            if (bucket == null) {
+                throw new IllegalArgumentException("Index is not within bounds");
+            }
+            return number;
+        }
+
+        stamp = lock.readLock();
+        try {
+            validateIndex(index, currentSize - 1);
+            return buckets.get(bucketOf(index))[offsetOf(index)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long getFirst() {
+        return get(0);
+    }
+
+    public long getLast() {
+        long stamp = lock.tryOptimisticRead();
+        final int size = currentSize;
+        final long[] bucket = size > 0 ? buckets.get(bucketOf(size - 1)) : null;
+        final long number = bucket == null ? 0 : bucket[offsetOf(size - 1)];
+        if (lock.validate(stamp)) {
+            if (bucket == null) {
+                throw new IllegalArgumentException("The array is empty");
+            }
+            return number;
+        }
+
+        stamp = lock.readLock();
+        try {
+            if (currentSize < 1) {
+                throw new IllegalArgumentException("The array is empty");
+            }
+            return buckets.get(bucketOf(currentSize - 1))[offsetOf(currentSize - 1)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return number of published numbers; appends still in progress are not counted
+     */
+    public int getSize() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    public void clear() {
+        final long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, null);
+            }
+            Arrays.fill(bucketEpochs, -1);
+            reserved.set(0);
+            currentSize = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns an iterator over the numbers published by the time of the call.
+     * The iterator does not block writers and does not see their changes.
+     *
+     * @return snapshot iterator
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return takeSnapshot();
+    }
+
+    /**
+     * @return numbers published by the time of the call
+     */
+    public long[] toArray() {
+        final var snapshot = takeSnapshot();
+        final var result = new long[snapshot.size];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = snapshot.nextLong();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private Snapshot takeSnapshot() {
+        long stamp = lock.tryOptimisticRead();
+        var snapshot = snapshot();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                snapshot = snapshot();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return snapshot;
+    }
+
+    private Snapshot snapshot() {
+        final int size = currentSize;
+        final var refs = new long[size == 0 ? 0 : bucketOf(size - 1) + 1][];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = buckets.get(i);
+        }
+        // Writers that come after this see the new epoch and copy the captured buckets first
+        epoch.incrementAndGet();
+        return new Snapshot(refs, size);
+    }
+
+    /**
+     * Reserves slots at the tail without publishing them.
+     *
+     * @return index of the first reserved slot
+     */
+    private int reserve(final int count) {
+        while (true) {
+            final int tail = reserved.get();
+            if (count > MAX_SIZE - tail) {
+                throw new IllegalArgumentException("The array size exceeds its maximum size");
+            }
+            if (reserved.compareAndSet(tail, tail + count)) {
+                return tail;
+            }
+        }
+    }
+
+    /**
+     * Makes the slots visible to readers once every earlier slot is visible. If earlier appends
+     * are still in progress, leaves the slots to whichever of them publishes the slot before.
+     * The range must not be empty: an empty one would share its first index with the next
+     * append and could take that append's place in the pending ranges.
+     */
+    private void publish(final int from, final int to) {
+        if (from == to) {
+            return;
+        }
+        if (currentSize == from) {
+            currentSize = to;
+        } else {
+            pending.put(from, to);
+        }
+        // Only the thread that takes the range starting at the size may advance the size
+        Integer next;
+        while ((next = pending.remove(currentSize)) != null) {
+            currentSize = next;
+        }
+    }
+
+    /**
+     * Removes the last number. The bucket that held it is made writable first,
+     * because the next append writes into it.
+     */
+    private void truncate() {
+        final int last = currentSize - 1;
+        writableBucket(bucketOf(last))[offsetOf(last)] = 0;
+        reserved.set(last);
+        currentSize = last;
+    }
+
+    private long[] bucket(final int index) {
+        final long[] bucket = buckets.get(index);
+        if (bucket != null) {
+            return bucket;
+        }
+        final long[] allocated = new long[FIRST_BUCKET_SIZE << index];
+        return buckets.compareAndSet(index, null, allocated) ? allocated : buckets.get(index);
+    }
+
+    /**
+     * Returns a bucket that no snapshot refers to. Must be called in the write mode.
+     */
+    private long[] writableBucket(final int index) {
+        final int current = epoch.get();
+        long[] bucket = buckets.get(index);
+        if (bucket == null) {
+            bucket = new long[FIRST_BUCKET_SIZE << index];
+        } else if (bucketEpochs[index] != current) {
+            bucket = bucket.clone();
+        } else {
+            return bucket;
+        }
+        buckets.set(index, bucket);
+        bucketEpochs[index] = current;
+        return bucket;
+    }
+
+    private static int bucketOf(final int index) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(index + FIRST_BUCKET_SIZE) - FIRST_BUCKET_SHIFT;
+    }
+
+    private static int offsetOf(final int index) {
+        final int position = index + FIRST_BUCKET_SIZE;
+        return position - Integer.highestOneBit(position);
+    }
+
+    private static void validateIndex(final int index, final int maxIndex) {
+        if (index < 0 || index > maxIndex) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+    }
+
+    private static final class Snapshot implements PrimitiveIterator.OfLong {
+
+        private final long[][] buckets;
+        private final int size;
+        private int index = 0;
+
+        private Snapshot(final long[][] buckets, final int size) {
+            this.buckets = buckets;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public long nextLong() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            final long number = buckets[bucketOf(index)][offsetOf(index)];
+            index++;
+            return number;
+        }
+    }
+}
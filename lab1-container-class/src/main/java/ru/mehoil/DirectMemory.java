@@ -0,0 +1,55 @@
+package ru.mehoil;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Frees direct and mapped buffers right away instead of waiting for the garbage collector.
+ * <p>
+ * Uses {@code sun.misc.Unsafe.invokeCleaner} from the {@code jdk.unsupported} module.
+ * If it is not available, buffers are left for the garbage collector to free.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+final class DirectMemory {
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            final var unsafeClass = Class.forName("sun.misc.Unsafe");
+            final var field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private DirectMemory() {
+    }
+
+    /**
+     * Releases the memory of the buffer, which must not be used afterwards.
+     *
+     * @param buffer direct buffer that is not a slice or a duplicate
+     */
+    static void free(final ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (final ReflectiveOperationException e) {
+            // left for the garbage collector
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package ru.mehoil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Numbers of a {@link NumbersContainer} saved to a file and mapped back into memory.
+ * <p>
+ * Opening a file takes constant time: the numbers are paged in by the operating system
+ * when they are first read. A file opened with {@link MapMode#READ_ONLY} can be shared
+ * by several processes at once, {@link MapMode#PRIVATE} keeps changes in memory only,
+ * and {@link MapMode#READ_WRITE} writes them back to the file.
+ * <p>
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: the magic number, the format
+ * version, the number of numbers and the CRC32C checksum of the numbers. The numbers follow
+ * in little-endian order. A file whose length does not match the header is rejected on
+ * opening; the checksum is compared by {@link #verify()}, since that reads the whole file.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public class MappedNumbersContainer implements AutoCloseable {
+
+    static final int HEADER_SIZE = 24;
+    static final int MAGIC = 0x4E554D53;
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = NumbersContainer.BYTE_ORDER;
+
+    private static final int DEFAULT_REGION_SHIFT = 27;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final MapMode mode;
+    private final int regionShift;
+    private final long regionMask;
+    private final int size;
+    private MappedByteBuffer[] regions;
+    private LongBuffer[] numbers;
+    private boolean modified = false;
+
+    private MappedNumbersContainer(final FileChannel channel, final MapMode mode, final int regionShift,
+                                   final int size) throws IOException {
+        this.channel = channel;
+        this.mode = mode;
+        this.regionShift = regionShift;
+        this.regionMask = (1L << regionShift) - 1;
+        this.size = size;
+
+        final int count = (int) ((size + regionMask) >>> regionShift);
+        regions = new MappedByteBuffer[count];
+        numbers = new LongBuffer[count];
+        for (int i = 0; i < count; i++) {
+            final long first = (long) i << regionShift;
+            final long length = Math.min(size - first, 1L << regionShift);
+            regions[i] = channel.map(mode, HEADER_SIZE + first * Long.BYTES, length * Long.BYTES);
+            numbers[i] = regions[i].order(BYTE_ORDER).asLongBuffer();
+        }
+    }
+
+    /**
+     * Saves the numbers of the container to the file, replacing it atomically
+     * so that processes which have the old file mapped are not affected.
+     *
+     * @param container numbers to save
+     * @param path      file to save them to
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(final NumbersContainer container, final Path path) throws IOException {
+        final var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        final var elements = container.elements();
+        final int size = container.getSize();
+        final var crc = new CRC32C();
+
+        try {
+            try (final var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                final var buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(BYTE_ORDER);
+                try {
+                    final var longs = buffer.asLongBuffer();
+                    channel.position(HEADER_SIZE);
+                    for (int from = 0; from < size; from += longs.capacity()) {
+                        final int length = Math.min(longs.capacity(), size - from);
+                        longs.clear();
+                        longs.put(elements, from, length);
+                        buffer.clear().limit(length * Long.BYTES);
+                        crc.update(buffer.duplicate());
+                        writeFully(channel, buffer, channel.position());
+                    }
+                } finally {
+                    DirectMemory.free(buffer);
+                }
+                writeHeader(channel, size, (int) crc.getValue());
+                channel.force(true);
+            }
+
+            try {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (final IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the file read-only, so that it can be shared with other processes.
+     *
+     * @param path file written by {@link #save(NumbersContainer, Path)}
+     * @return mapped numbers
+     * @throws IOException if the file cannot be read, is not a numbers file or is truncated
+     */
+    public static MappedNumbersContainer open(final Path path) throws IOException {
+        return open(path, MapMode.READ_ONLY);
+    }
+
+    /**
+     * Maps the file in the given mode.
+     *
+     * @param path file written by {@link #save(NumbersContainer, Path)}
+     * @param mode {@link MapMode#READ_ONLY}, {@link MapMode#PRIVATE} or {@link MapMode#READ_WRITE}
+     * @return mapped numbers
+     * @throws IOException if the file cannot be read, is not a numbers file or is truncated
+     */
+    public static MappedNumbersContainer open(final Path path, final MapMode mode) throws IOException {
+        return open(path, mode, DEFAULT_REGION_SHIFT);
+    }
+
+    /**
+     * @param regionShift binary logarithm of the number of numbers in a single mapping
+     */
+    static MappedNumbersContainer open(final Path path, final MapMode mode, final int regionShift)
+            throws IOException {
+        final var channel = mode != MapMode.READ_ONLY
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final var header = readHeader(channel);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("The file does not contain numbers");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported file version: " + header.getInt(4));
+            }
+            final long size = header.getLong(8);
+            if (size < 0 || size > Integer.MAX_VALUE || channel.size() != HEADER_SIZE + size * Long.BYTES) {
+                throw new IOException("The file is truncated");
+            }
+            return new MappedNumbersContainer(channel, mode, regionShift, (int) size);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long get(final int index) {
+        validateIndex(index);
+        return numbers[index >>> regionShift].get((int) (index & regionMask));
+    }
+
+    public long getFirst() {
+        return get(0);
+    }
+
+    public long getLast() {
+        return get(size - 1);
+    }
+
+    /**
+     * Replaces the number at the given index.
+     *
+     * @param index  index of the number
+     * @param number new number
+     * @throws IllegalStateException if the file is mapped read-only
+     */
+    public void set(final int index, final long number) {
+        validateIndex(index);
+        if (mode == MapMode.READ_ONLY) {
+            throw new IllegalStateException("The file is mapped read-only");
+        }
+        numbers[index >>> regionShift].put((int) (index & regionMask), number);
+        modified = true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies the numbers into a new container on the heap.
+     *
+     * @return container with the same numbers
+     */
+    public NumbersContainer toContainer() {
+        validateOpen();
+        final var container = new NumbersContainer();
+        container.ensureCapacity(size);
+        final var elements = new long[Math.min(size, 1 << 16)];
+        for (final var region : numbers) {
+            final var source = region.duplicate().clear();
+            while (source.hasRemaining()) {
+                final int length = Math.min(elements.length, source.remaining());
+                source.get(elements, 0, length);
+                container.putAll(length == elements.length ? elements : Arrays.copyOf(elements, length));
+            }
+        }
+        return container;
+    }
+
+    /**
+     * Reads the whole file and compares the checksum of the numbers with the one in the header.
+     *
+     * @throws IOException if the checksums do not match
+     */
+    public void verify() throws IOException {
+        validateOpen();
+        if (readHeader(channel).getInt(16) != checksum()) {
+            throw new IOException("The checksum does not match, the file is corrupted");
+        }
+    }
+
+    /**
+     * Writes the changes made in {@link MapMode#READ_WRITE} mode, with an updated checksum, to the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void force() throws IOException {
+        validateOpen();
+        if (mode != MapMode.READ_WRITE || !modified) {
+            return;
+        }
+        for (final var region : regions) {
+            region.force();
+        }
+        writeHeader(channel, size, checksum());
+        channel.force(true);
+        modified = false;
+    }
+
+    /**
+     * Writes the changes, if any, and unmaps the file. The numbers cannot be used afterwards.
+     *
+     * @throws IOException if the changes cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (regions == null) {
+            return;
+        }
+        try {
+            force();
+        } finally {
+            for (final var region : regions) {
+                DirectMemory.free(region);
+            }
+            regions = null;
+            numbers = null;
+            channel.close();
+        }
+    }
+
+    private int checksum() {
+        final var crc = new CRC32C();
+        for (final var region : regions) {
+            crc.update(region.duplicate().clear());
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void writeHeader(final FileChannel channel, final int size, final int checksum)
+            throws IOException {
+        final var header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(size)
+                .putInt(checksum)
+                .putInt(0)
+                .flip();
+        writeFully(channel, header, 0);
+    }
+
+    private static ByteBuffer readHeader(final FileChannel channel) throws IOException {
+        final var header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("The file is truncated");
+            }
+        }
+        return header;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+        channel.position(offset);
+    }
+
+    private void validateIndex(final int index) {
+        validateOpen();
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+    }
+
+    private void validateOpen() {
+        if (regions == null) {
+            throw new IllegalStateException("The file is closed");
+        }
+    }
+}
@@ -1,8 +1,31 @@
 package ru.mehoil;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 /**
  * Encapsulates an array of type long and provides
  * methods for interacting with it.
+ * <p>
+ * The array grows by half of its length at a time, or more if a bulk put needs it.
+ * Elements are moved with {@link System#arraycopy}.
+ * <p>
+ * Aggregates are computed in place by plain loops, which the JIT compiler vectorizes,
+ * and by a parallel stream once the container holds {@value #PARALLEL_THRESHOLD} numbers or more.
+ * <p>
+ * In binary form the numbers are preceded by their count, all in little-endian order,
+ * and pass through a direct buffer that each thread allocates once.
  *
  * @author Mikhail Dorokhov
  * @since 1.0
@@ -10,10 +33,16 @@ package ru.mehoil;
 public class NumbersContainer {
 
     private static final int INITIAL_SIZE = 128;
-    private static final float RESIZING_FACTOR = 1.5f;
+    // Some VMs reserve header words in an array
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final int APPEND_CHUNK_SIZE = 1 << 13;
+    private static final ThreadLocal<ByteBuffer> IO_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(IO_BUFFER_SIZE).order(BYTE_ORDER));
 
     private long[] numbers = new long[INITIAL_SIZE];
-    private int maxSize = INITIAL_SIZE;
     private int currentSize = 0;
 
     public NumbersContainer(final long[] numbers) {
@@ -39,8 +68,8 @@ public class NumbersContainer {
     }
 
     public void putLast(final long number) {
-        if (currentSize + 1 > maxSize) {
-            resize();
+        if (currentSize == numbers.length) {
+            grow(currentSize + 1);
         }
         numbers[currentSize++] = number;
     }
@@ -88,8 +117,239 @@ public class NumbersContainer {
 
     public void clear() {
         currentSize = 0;
-        maxSize = INITIAL_SIZE;
-        numbers = new long[maxSize];
+        numbers = new long[INITIAL_SIZE];
+    }
+
+    /**
+     * Grows the array, if necessary, so that it holds at least the given number of numbers
+     * without growing again.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(final int minCapacity) {
+        if (minCapacity > numbers.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Shrinks the array to the current number of numbers.
+     */
+    public void trimToSize() {
+        if (currentSize < numbers.length) {
+            numbers = Arrays.copyOf(numbers, currentSize);
+        }
+    }
+
+    public void forEach(final LongConsumer action) {
+        for (int i = 0; i < currentSize; i++) {
+            action.accept(numbers[i]);
+        }
+    }
+
+    /**
+     * Returns a spliterator over the numbers the container holds at the time of the call.
+     * It splits the backing array in halves and must not be used after the container is changed.
+     *
+     * @return sized spliterator over the numbers
+     */
+    public Spliterator.OfLong spliterator() {
+        return Spliterators.spliterator(numbers, 0, currentSize, Spliterator.ORDERED);
+    }
+
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
+    /**
+     * Returns a read-only window over the numbers at the given positions. The window shares
+     * the storage of the container and sees its later changes at those positions.
+     *
+     * @param from index of the first number, inclusive
+     * @param to   index of the last number, exclusive
+     * @return view of the numbers
+     */
+    public NumbersView subView(final int from, final int to) {
+        if (from < 0 || from > to || to > currentSize) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+        return new NumbersView(this, from, to - from);
+    }
+
+    /**
+     * @return sum of the numbers, overflowing like {@code long} addition does
+     */
+    public long sum() {
+        if (currentSize >= PARALLEL_THRESHOLD) {
+            return Arrays.stream(numbers, 0, currentSize).parallel().sum();
+        }
+        long sum = 0;
+        for (int i = 0; i < currentSize; i++) {
+            sum += numbers[i];
+        }
+        return sum;
+    }
+
+    public long min() {
+        validateNotEmpty();
+        if (currentSize >= PARALLEL_THRESHOLD) {
+            return Arrays.stream(numbers, 0, currentSize).parallel().min().orElseThrow();
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < currentSize; i++) {
+            min = Math.min(min, numbers[i]);
+        }
+        return min;
+    }
+
+    public long max() {
+        validateNotEmpty();
+        if (currentSize >= PARALLEL_THRESHOLD) {
+            return Arrays.stream(numbers, 0, currentSize).parallel().max().orElseThrow();
+        }
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < currentSize; i++) {
+            max = Math.max(max, numbers[i]);
+        }
+        return max;
+    }
+
+    public double mean() {
+        validateNotEmpty();
+        return (double) sum() / currentSize;
+    }
+
+    /**
+     * Counts the numbers that match the predicate. For large containers the predicate
+     * is called from several threads at once, so it must not have side effects.
+     *
+     * @param predicate condition to check
+     * @return number of matching numbers
+     */
+    public int count(final LongPredicate predicate) {
+        if (currentSize >= PARALLEL_THRESHOLD) {
+            return (int) Arrays.stream(numbers, 0, currentSize).parallel().filter(predicate).count();
+        }
+        int count = 0;
+        for (int i = 0; i < currentSize; i++) {
+            if (predicate.test(numbers[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param number number to look for
+     * @return index of the first occurrence of the number, or -1 if there is none
+     */
+    public int indexOf(final long number) {
+        for (int i = 0; i < currentSize; i++) {
+            if (numbers[i] == number) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Looks for the number in a container sorted in ascending order.
+     *
+     * @param number number to look for
+     * @return index of the number, or {@code -(insertion point) - 1} if there is none,
+     * as {@link Arrays#binarySearch(long[], long)} returns
+     */
+    public int binarySearch(final long number) {
+        return Arrays.binarySearch(numbers, 0, currentSize, number);
+    }
+
+    /**
+     * Writes the count of the numbers and the numbers to the channel in binary form.
+     *
+     * @param channel channel to write to
+     * @throws IOException if the channel fails
+     */
+    public void writeTo(final WritableByteChannel channel) throws IOException {
+        final var buffer = IO_BUFFER.get().clear();
+        final var longs = buffer.asLongBuffer();
+        longs.put(currentSize);
+        int from = 0;
+        do {
+            final int length = Math.min(longs.remaining(), currentSize - from);
+            longs.put(numbers, from, length);
+            from += length;
+            buffer.limit(longs.position() * Long.BYTES).position(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            longs.clear();
+        } while (from < currentSize);
+    }
+
+    /**
+     * Reads numbers written by {@link #writeTo(WritableByteChannel)} and puts them after the current ones.
+     * If the channel ends too early, the container is left unchanged. The array grows as
+     * the numbers arrive, so a count larger than the data that follows allocates nothing for it.
+     *
+     * @param channel channel to read from
+     * @throws IOException if the channel fails or ends before all numbers are read
+     */
+    public void readFrom(final ReadableByteChannel channel) throws IOException {
+        final var buffer = IO_BUFFER.get().clear().limit(Long.BYTES);
+        readFully(channel, buffer);
+        final long count = buffer.getLong(0);
+        if (count < 0 || count > MAX_SIZE - currentSize) {
+            throw new IOException("Invalid count of numbers: " + count);
+        }
+
+        int size = currentSize;
+        final int end = currentSize + (int) count;
+        while (size < end) {
+            final int length = Math.min(end - size, IO_BUFFER_SIZE / Long.BYTES);
+            buffer.clear().limit(length * Long.BYTES);
+            readFully(channel, buffer);
+            buffer.flip();
+            ensureCapacity(size + length);
+            buffer.asLongBuffer().get(numbers, size, length);
+            size += length;
+        }
+        currentSize = end;
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} in small pieces, so that the text
+     * of a large container is never held in memory at once.
+     *
+     * @param appendable where to append the text, such as a {@link java.io.Writer}
+     * @throws IOException if the appendable fails
+     */
+    public void appendTo(final Appendable appendable) throws IOException {
+        final var chunk = new StringBuilder(APPEND_CHUNK_SIZE + 32);
+        chunk.append('[');
+        for (int i = 0; i < currentSize; i++) {
+            if (i > 0) {
+                chunk.append(", ");
+            }
+            chunk.append(numbers[i]);
+            if (chunk.length() >= APPEND_CHUNK_SIZE) {
+                appendable.append(chunk);
+                chunk.setLength(0);
+            }
+        }
+        chunk.append(']');
+        appendable.append(chunk);
+    }
+
+    /**
+     * @return the backing array, whose first {@link #getSize()} elements are the numbers
+     */
+    long[] elements() {
+        return numbers;
     }
 
     @Override
@@ -101,15 +361,7 @@ public class NumbersContainer {
             return false;
         }
 
-        if (currentSize != other.currentSize) {
-            return false;
-        }
-        for (int i = 0; i < currentSize; i++) {
-            if (numbers[i] != other.numbers[i]) {
-                return false;
-            }
-        }
-        return true;
+        return Arrays.equals(numbers, 0, currentSize, other.numbers, 0, other.currentSize);
     }
 
     @Override
@@ -144,61 +396,61 @@ public class NumbersContainer {
             throw new IllegalArgumentException("Cannot shift array to the left if it's empty");
         }
 
-        for (int i = index; i < currentSize - 1; i++) {
-            numbers[i] = numbers[i + 1];
+        if (index < currentSize) {
+            System.arraycopy(numbers, index + 1, numbers, index, currentSize - index - 1);
         }
         currentSize--;
     }
 
     private void shiftRightAt(final int index) {
         validateIndex(index);
-        if (currentSize + 1 > maxSize) {
-            resize();
+        if (currentSize == numbers.length) {
+            grow(currentSize + 1);
         }
 
-        for (int i = currentSize; i > index; i--) {
-            numbers[i] = numbers[i - 1];
-        }
+        System.arraycopy(numbers, index, numbers, index + 1, currentSize - index);
         currentSize++;
 
         numbers[index] = 0;
     }
 
     private void putArray(final long[] numbers) {
-        final int newNumbersSize = numbers.length;
-        final int requiredSize = currentSize + newNumbersSize;
-
-        if (requiredSize > maxSize) {
-            final int newSize = (int) Math.min(
-                    requiredSize * RESIZING_FACTOR,
-                    Integer.MAX_VALUE
-            );
-            resize(newSize);
-        }
-        for (int i = 0; i < newNumbersSize; i++) {
-            this.numbers[currentSize + i] = numbers[i];
+        if (numbers.length > MAX_SIZE - currentSize) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
         }
-
-        currentSize += newNumbersSize;
+        ensureCapacity(currentSize + numbers.length);
+        System.arraycopy(numbers, 0, this.numbers, currentSize, numbers.length);
+        currentSize += numbers.length;
     }
 
-    private void resize(final int newSize) {
-        final long[] newNumbers = new long[newSize];
-        for (int i = 0; i < currentSize && i < newSize; i++) {
-            newNumbers[i] = numbers[i];
+    /**
+     * Grows the array by half of its length, or to the minimum capacity if that is larger,
+     * without overflowing {@code int}.
+     */
+    private void grow(final int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_SIZE) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
         }
+        final int length = numbers.length;
+        final int preferred = length + Math.max(length >> 1, 1);
+        final int newSize = preferred < 0 || preferred > MAX_SIZE
+                ? MAX_SIZE
+                : Math.max(preferred, minCapacity);
+        numbers = Arrays.copyOf(numbers, newSize);
+    }
 
-        currentSize = Math.min(currentSize, newSize);
-        numbers = newNumbers;
-        maxSize = newSize;
+    private static void readFully(final ReadableByteChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("The channel ended before all numbers were read");
+            }
+        }
     }
 
-    private void resize() {
-        if (currentSize == Integer.MAX_VALUE) {
-            throw new IllegalArgumentException("The array size exceeds its maximum size");
+    private void validateNotEmpty() {
+        if (currentSize == 0) {
+            throw new IllegalArgumentException("The array is empty");
         }
-        final int newSize = (int) (currentSize * RESIZING_FACTOR);
-        resize(newSize);
     }
 
     private void validateIndex(final int index) {
@@ -0,0 +1,207 @@
+package ru.mehoil;
+
+/**
+ * Encapsulates an array of type long used as a circular buffer, so that numbers
+ * can be added to and removed from both ends in constant time.
+ * <p>
+ * Provides the same methods as {@link NumbersContainer}. The array length is always
+ * a power of two, which turns an index into an array position with a single mask.
+ * Putting or removing in the middle shifts the shorter side only.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public class NumbersDeque {
+
+    private static final int INITIAL_SIZE = 128;
+    private static final int MAX_SIZE = 1 << 30;
+
+    private long[] numbers = new long[INITIAL_SIZE];
+    private int mask = INITIAL_SIZE - 1;
+    private int head = 0;
+    private int currentSize = 0;
+
+    public NumbersDeque(final long[] numbers) {
+        putAll(numbers);
+    }
+
+    public NumbersDeque() {
+    }
+
+    public void put(final int index, final long number) {
+        if (index < 0 || index > currentSize) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+        ensureCapacity(currentSize + 1);
+        if (index < currentSize / 2) {
+            head = (head - 1) & mask;
+            for (int i = 0; i < index; i++) {
+                numbers[(head + i) & mask] = numbers[(head + i + 1) & mask];
+            }
+        } else {
+            for (int i = currentSize; i > index; i--) {
+                numbers[(head + i) & mask] = numbers[(head + i - 1) & mask];
+            }
+        }
+        numbers[(head + index) & mask] = number;
+        currentSize++;
+    }
+
+    public void putFirst(final long number) {
+        ensureCapacity(currentSize + 1);
+        head = (head - 1) & mask;
+        numbers[head] = number;
+        currentSize++;
+    }
+
+    public void putLast(final long number) {
+        ensureCapacity(currentSize + 1);
+        numbers[(head + currentSize) & mask] = number;
+        currentSize++;
+    }
+
+    public void putAll(final long[] numbers) {
+        if (numbers.length > MAX_SIZE - currentSize) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
+        }
+        ensureCapacity(currentSize + numbers.length);
+        final int tail = (head + currentSize) & mask;
+        final int untilEnd = Math.min(numbers.length, this.numbers.length - tail);
+        System.arraycopy(numbers, 0, this.numbers, tail, untilEnd);
+        System.arraycopy(numbers, untilEnd, this.numbers, 0, numbers.length - untilEnd);
+        currentSize += numbers.length;
+    }
+
+    public void remove(final int index) {
+        validateIndex(index);
+        if (index < currentSize / 2) {
+            for (int i = index; i > 0; i--) {
+                numbers[(head + i) & mask] = numbers[(head + i - 1) & mask];
+            }
+            head = (head + 1) & mask;
+        } else {
+            for (int i = index; i < currentSize - 1; i++) {
+                numbers[(head + i) & mask] = numbers[(head + i + 1) & mask];
+            }
+        }
+        currentSize--;
+    }
+
+    public void removeFirst() {
+        validateNotEmpty();
+        head = (head + 1) & mask;
+        currentSize--;
+    }
+
+    public void removeLast() {
+        validateNotEmpty();
+        currentSize--;
+    }
+
+    public long get(final int index) {
+        validateIndex(index);
+        return numbers[(head + index) & mask];
+    }
+
+    public long getFirst() {
+        validateNotEmpty();
+        return numbers[head];
+    }
+
+    public long getLast() {
+        validateNotEmpty();
+        return numbers[(head + currentSize - 1) & mask];
+    }
+
+    public int getSize() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    public void clear() {
+        numbers = new long[INITIAL_SIZE];
+        mask = INITIAL_SIZE - 1;
+        head = 0;
+        currentSize = 0;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof final NumbersDeque other)) {
+            return false;
+        }
+
+        if (currentSize != other.currentSize) {
+            return false;
+        }
+        for (int i = 0; i < currentSize; i++) {
+            if (numbers[(head + i) & mask] != other.numbers[(other.head + i) & other.mask]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = currentSize;
+        for (int i = 0; i < currentSize; i++) {
+            result = 31 * result + Long.hashCode(numbers[(head + i) & mask]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "[]";
+        }
+
+        final var sb = new StringBuilder("[");
+        for (int i = 0; i < currentSize - 1; i++) {
+            sb.append(numbers[(head + i) & mask]);
+            sb.append(", ");
+        }
+        sb.append(getLast());
+        sb.append("]");
+
+        return sb.toString();
+    }
+
+    /**
+     * Doubles the array until it fits the required size, unwrapping the numbers to its start.
+     */
+    private void ensureCapacity(final int requiredSize) {
+        if (requiredSize <= numbers.length) {
+            return;
+        }
+        if (requiredSize > MAX_SIZE) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
+        }
+        final var newNumbers = new long[Integer.highestOneBit(requiredSize - 1) << 1];
+        final int untilEnd = Math.min(currentSize, numbers.length - head);
+        System.arraycopy(numbers, head, newNumbers, 0, untilEnd);
+        System.arraycopy(numbers, 0, newNumbers, untilEnd, currentSize - untilEnd);
+        numbers = newNumbers;
+        mask = newNumbers.length - 1;
+        head = 0;
+    }
+
+    private void validateIndex(final int index) {
+        if (index < 0 || index >= currentSize) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+    }
+
+    private void validateNotEmpty() {
+        if (currentSize == 0) {
+            throw new IllegalArgumentException("The array is empty");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.mehoil;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read-only window over consecutive numbers of a {@link NumbersContainer}.
+ * <p>
+ * The view does not copy the numbers: every access goes to the current array of the container,
+ * so the view sees changes at its positions and stays valid when the container grows.
+ * It becomes unusable once the container holds fewer numbers than the window needs.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public final class NumbersView {
+
+    private final NumbersContainer container;
+    private final int from;
+    private final int size;
+
+    NumbersView(final NumbersContainer container, final int from, final int size) {
+        this.container = container;
+        this.from = from;
+        this.size = size;
+    }
+
+    public long get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+        return elements()[from + index];
+    }
+
+    public long getFirst() {
+        return get(0);
+    }
+
+    public long getLast() {
+        return get(size - 1);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(final LongConsumer action) {
+        final long[] numbers = elements();
+        for (int i = from; i < from + size; i++) {
+            action.accept(numbers[i]);
+        }
+    }
+
+    /**
+     * @return sized spliterator over the numbers of the window
+     */
+    public Spliterator.OfLong spliterator() {
+        return Spliterators.spliterator(elements(), from, from + size, Spliterator.ORDERED);
+    }
+
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
+    /**
+     * @param from index of the first number within this view, inclusive
+     * @param to   index of the last number within this view, exclusive
+     * @return narrower view over the same container
+     */
+    public NumbersView subView(final int from, final int to) {
+        if (from < 0 || from > to || to > size) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+        return new NumbersView(container, this.from + from, to - from);
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOfRange(elements(), from, from + size);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private long[] elements() {
+        if (from + size > container.getSize()) {
+            throw new IllegalStateException("The container no longer holds the numbers of the view");
+        }
+        return container.elements();
+    }
+}
@@ -0,0 +1,255 @@
+package ru.mehoil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Keeps numbers of type long outside of the Java heap, so that even billions
+ * of them put no pressure on the garbage collector.
+ * <p>
+ * Numbers are stored in chunks of direct memory, each one viewed as a {@link LongBuffer}
+ * in the native byte order, and are indexed by {@code long}. Only the first chunk grows
+ * by copying, the following ones are allocated at their full size, so a large container
+ * never copies its numbers to grow. The memory is freed by {@link #close()}; the total
+ * is limited by {@code -XX:MaxDirectMemorySize}.
+ * <p>
+ * Provides the same methods as {@link NumbersContainer}, with {@code long} indexes.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public class OffHeapNumbersContainer implements AutoCloseable {
+
+    private static final int DEFAULT_CHUNK_SHIFT = 20;
+    private static final int INITIAL_SIZE = 128;
+
+    private final int chunkShift;
+    private final int chunkSize;
+    private final long chunkMask;
+
+    private ByteBuffer[] memory = new ByteBuffer[0];
+    private LongBuffer[] chunks = new LongBuffer[0];
+    private long capacity = 0;
+    private long currentSize = 0;
+    private boolean closed = false;
+
+    public OffHeapNumbersContainer(final long[] numbers) {
+        this();
+        putAll(numbers);
+    }
+
+    public OffHeapNumbersContainer() {
+        this(DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * @param chunkShift binary logarithm of the number of numbers in a chunk
+     */
+    OffHeapNumbersContainer(final int chunkShift) {
+        this.chunkShift = chunkShift;
+        this.chunkSize = 1 << chunkShift;
+        this.chunkMask = chunkSize - 1;
+    }
+
+    public void put(final long index, final long number) {
+        validateIndex(index, currentSize);
+        ensureCapacity(currentSize + 1);
+        final long newSize = currentSize + 1;
+
+        // Shifts each chunk in bulk, its last number moving to the start of the next one
+        long carry = number;
+        long cursor = index;
+        while (cursor < newSize) {
+            final var chunk = chunks[(int) (cursor >>> chunkShift)];
+            final int offset = (int) (cursor & chunkMask);
+            final int length = (int) Math.min(chunk.capacity() - offset, newSize - cursor);
+            final long last = chunk.get(offset + length - 1);
+            chunk.put(offset + 1, chunk, offset, length - 1);
+            chunk.put(offset, carry);
+            carry = last;
+            cursor += length;
+        }
+        currentSize = newSize;
+    }
+
+    public void putFirst(final long number) {
+        put(0, number);
+    }
+
+    public void putLast(final long number) {
+        ensureCapacity(currentSize + 1);
+        set(currentSize++, number);
+    }
+
+    public void putAll(final long[] numbers) {
+        ensureCapacity(currentSize + numbers.length);
+        int from = 0;
+        while (from < numbers.length) {
+            final var chunk = chunks[(int) (currentSize >>> chunkShift)];
+            final int offset = (int) (currentSize & chunkMask);
+            final int length = Math.min(numbers.length - from, chunk.capacity() - offset);
+            chunk.put(offset, numbers, from, length);
+            from += length;
+            currentSize += length;
+        }
+    }
+
+    public void remove(final long index) {
+        validateIndex(index, currentSize - 1);
+        final long last = currentSize - 1;
+
+        // Shifts each chunk in bulk, the first number of the next one moving to its end
+        long cursor = index;
+        while (cursor < last) {
+            final var chunk = chunks[(int) (cursor >>> chunkShift)];
+            final int offset = (int) (cursor & chunkMask);
+            final int length = (int) Math.min(chunk.capacity() - offset, last - cursor);
+            chunk.put(offset, chunk, offset + 1, length - 1);
+            final long next = cursor + length;
+            chunk.put(offset + length - 1, at(next));
+            cursor = next;
+        }
+        currentSize = last;
+    }
+
+    public void removeFirst() {
+        remove(0);
+    }
+
+    public void removeLast() {
+        validateOpen();
+        if (currentSize == 0) {
+            throw new IllegalArgumentException("The array is empty");
+        }
+        currentSize--;
+    }
+
+    public long get(final long index) {
+        validateIndex(index, currentSize - 1);
+        return at(index);
+    }
+
+    public long getFirst() {
+        return get(0);
+    }
+
+    public long getLast() {
+        return get(currentSize - 1);
+    }
+
+    public long getSize() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    /**
+     * @return number of numbers the allocated memory can hold
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Removes all numbers and frees their memory. The container stays usable.
+     */
+    public void clear() {
+        validateOpen();
+        release();
+    }
+
+    /**
+     * Allocates memory, if necessary, so that the container holds at least the given number of numbers.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(final long minCapacity) {
+        validateOpen();
+        if (minCapacity <= capacity) {
+            return;
+        }
+        if (capacity < chunkSize) {
+            final long firstChunk = Math.min(chunkSize, Math.max(minCapacity, Math.max(INITIAL_SIZE, capacity * 2)));
+            growFirstChunk((int) firstChunk);
+        }
+        if (minCapacity > capacity) {
+            final long required = (minCapacity + chunkMask) >>> chunkShift;
+            if (required > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The array size exceeds its maximum size");
+            }
+            final int count = chunks.length;
+            memory = Arrays.copyOf(memory, (int) required);
+            chunks = Arrays.copyOf(chunks, (int) required);
+            for (int i = count; i < required; i++) {
+                allocate(i, chunkSize);
+                capacity += chunkSize;
+            }
+        }
+    }
+
+    /**
+     * Frees the memory. The container cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            release();
+            closed = true;
+        }
+    }
+
+    private void growFirstChunk(final int size) {
+        final var oldMemory = chunks.length == 0 ? null : memory[0];
+        final var oldChunk = chunks.length == 0 ? null : chunks[0];
+        if (chunks.length == 0) {
+            memory = new ByteBuffer[1];
+            chunks = new LongBuffer[1];
+        }
+        allocate(0, size);
+        if (oldChunk != null) {
+            chunks[0].put(0, oldChunk, 0, (int) currentSize);
+            DirectMemory.free(oldMemory);
+        }
+        capacity = size;
+    }
+
+    private void allocate(final int chunk, final int size) {
+        memory[chunk] = ByteBuffer.allocateDirect(size * Long.BYTES).order(ByteOrder.nativeOrder());
+        chunks[chunk] = memory[chunk].asLongBuffer();
+    }
+
+    private void release() {
+        for (final var buffer : memory) {
+            DirectMemory.free(buffer);
+        }
+        memory = new ByteBuffer[0];
+        chunks = new LongBuffer[0];
+        capacity = 0;
+        currentSize = 0;
+    }
+
+    private long at(final long index) {
+        return chunks[(int) (index >>> chunkShift)].get((int) (index & chunkMask));
+    }
+
+    private void set(final long index, final long number) {
+        chunks[(int) (index >>> chunkShift)].put((int) (index & chunkMask), number);
+    }
+
+    private void validateIndex(final long index, final long maxIndex) {
+        validateOpen();
+        if (index < 0 || index > maxIndex) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+    }
+
+    private void validateOpen() {
+        if (closed) {
+            throw new IllegalStateException("The container is closed");
+        }
+    }
+}
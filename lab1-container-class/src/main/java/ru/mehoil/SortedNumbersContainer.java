@@ -0,0 +1,281 @@
+package ru.mehoil;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Keeps numbers of type long in ascending order, so that lookups, ranks and range
+ * queries take logarithmic time.
+ * <p>
+ * A batch put with {@link #putAll(long[])} is sorted with {@link Arrays#parallelSort(long[])}
+ * and merged into the numbers from the end in linear time, instead of being inserted number
+ * by number. Duplicates are kept.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+public class SortedNumbersContainer {
+
+    private static final int INITIAL_SIZE = 128;
+    // Some VMs reserve header words in an array
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private long[] numbers = new long[INITIAL_SIZE];
+    private int currentSize = 0;
+
+    public SortedNumbersContainer(final long[] numbers) {
+        putAll(numbers);
+    }
+
+    public SortedNumbersContainer() {
+    }
+
+    /**
+     * Inserts the number after the numbers equal to it.
+     *
+     * @param number number to insert
+     */
+    public void put(final long number) {
+        final int index = upperBound(number);
+        ensureCapacity(currentSize + 1);
+        System.arraycopy(numbers, index, numbers, index + 1, currentSize - index);
+        numbers[index] = number;
+        currentSize++;
+    }
+
+    /**
+     * Inserts a batch of numbers in any order. The batch is sorted in parallel if it is large,
+     * then merged with the numbers from the end.
+     *
+     * @param numbers numbers to insert, left unchanged
+     */
+    public void putAll(final long[] numbers) {
+        if (numbers.length > MAX_SIZE - currentSize) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
+        }
+        ensureCapacity(currentSize + numbers.length);
+        if (currentSize == 0) {
+            System.arraycopy(numbers, 0, this.numbers, 0, numbers.length);
+            Arrays.parallelSort(this.numbers, 0, numbers.length);
+            currentSize = numbers.length;
+            return;
+        }
+
+        final long[] batch = numbers.clone();
+        Arrays.parallelSort(batch);
+        int left = currentSize - 1;
+        int right = batch.length - 1;
+        int target = currentSize + batch.length - 1;
+        while (right >= 0) {
+            if (left >= 0 && this.numbers[left] > batch[right]) {
+                this.numbers[target--] = this.numbers[left--];
+            } else {
+                this.numbers[target--] = batch[right--];
+            }
+        }
+        currentSize += batch.length;
+    }
+
+    /**
+     * Removes one occurrence of the number.
+     *
+     * @param number number to remove
+     * @return whether the number was found
+     */
+    public boolean remove(final long number) {
+        final int index = lowerBound(number);
+        if (index == currentSize || numbers[index] != number) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public void removeAt(final int index) {
+        validateIndex(index);
+        System.arraycopy(numbers, index + 1, numbers, index, currentSize - index - 1);
+        currentSize--;
+    }
+
+    public long get(final int index) {
+        validateIndex(index);
+        return numbers[index];
+    }
+
+    /**
+     * @return the smallest number
+     */
+    public long getFirst() {
+        return get(0);
+    }
+
+    /**
+     * @return the largest number
+     */
+    public long getLast() {
+        return get(currentSize - 1);
+    }
+
+    public int getSize() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    public void clear() {
+        currentSize = 0;
+        numbers = new long[INITIAL_SIZE];
+    }
+
+    public boolean contains(final long number) {
+        return indexOf(number) >= 0;
+    }
+
+    /**
+     * @param number number to look for
+     * @return index of the first occurrence of the number, or -1 if there is none
+     */
+    public int indexOf(final long number) {
+        final int index = lowerBound(number);
+        return index < currentSize && numbers[index] == number ? index : -1;
+    }
+
+    /**
+     * @param number any number
+     * @return how many numbers are less than the given one
+     */
+    public int rank(final long number) {
+        return lowerBound(number);
+    }
+
+    /**
+     * @param from the smallest number of the range, inclusive
+     * @param to   the largest number of the range, inclusive
+     * @return how many numbers lie within the range
+     */
+    public int countBetween(final long from, final long to) {
+        return from > to ? 0 : upperBound(to) - lowerBound(from);
+    }
+
+    /**
+     * Passes the numbers that lie within the range to the action in ascending order.
+     *
+     * @param from   the smallest number of the range, inclusive
+     * @param to     the largest number of the range, inclusive
+     * @param action action to perform
+     */
+    public void forEachBetween(final long from, final long to, final LongConsumer action) {
+        if (from > to) {
+            return;
+        }
+        final int end = upperBound(to);
+        for (int i = lowerBound(from); i < end; i++) {
+            action.accept(numbers[i]);
+        }
+    }
+
+    /**
+     * @param from the smallest number of the range, inclusive
+     * @param to   the largest number of the range, inclusive
+     * @return numbers that lie within the range, in ascending order
+     */
+    public LongStream streamBetween(final long from, final long to) {
+        if (from > to) {
+            return LongStream.empty();
+        }
+        return Arrays.stream(numbers, lowerBound(from), upperBound(to));
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(numbers, 0, currentSize);
+    }
+
+    /**
+     * Grows the array, if necessary, so that it holds at least the given number of numbers
+     * without growing again.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(final int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_SIZE) {
+            throw new IllegalArgumentException("The array size exceeds its maximum size");
+        }
+        if (minCapacity > numbers.length) {
+            final int length = numbers.length;
+            final int preferred = length + Math.max(length >> 1, 1);
+            final int newSize = preferred < 0 || preferred > MAX_SIZE
+                    ? MAX_SIZE
+                    : Math.max(preferred, minCapacity);
+            numbers = Arrays.copyOf(numbers, newSize);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof final SortedNumbersContainer other)) {
+            return false;
+        }
+
+        return Arrays.equals(numbers, 0, currentSize, other.numbers, 0, other.currentSize);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = currentSize;
+        for (int i = 0; i < currentSize; i++) {
+            result = 31 * result + Long.hashCode(numbers[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(numbers, currentSize));
+    }
+
+    /**
+     * @return index of the first number that is not less than the given one
+     */
+    private int lowerBound(final long number) {
+        int low = 0;
+        int high = currentSize;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (numbers[middle] < number) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first number that is greater than the given one
+     */
+    private int upperBound(final long number) {
+        int low = 0;
+        int high = currentSize;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (numbers[middle] <= number) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void validateIndex(final int index) {
+        if (index < 0 || index >= currentSize) {
+            throw new IllegalArgumentException("Index is not within bounds");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ChunkedNumbersContainer} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class ChunkedNumbersContainerTest {
+
+    private static final long[] INITIAL_ARRAY = new long[]{1, 2, 3, 4, 5};
+
+    @Test
+    void testPutAndRemove() {
+        final var container = new ChunkedNumbersContainer(INITIAL_ARRAY);
+
+        container.putFirst(0);
+        container.putLast(6);
+        container.put(3, 42);
+        assertEquals("[0, 1, 2, 42, 3, 4, 5, 6]", container.toString());
+
+        container.remove(3);
+        container.removeFirst();
+        container.removeLast();
+        assertArrayEquals(INITIAL_ARRAY, container.toArray());
+        assertEquals(1, container.getFirst());
+        assertEquals(5, container.getLast());
+    }
+
+    @Test
+    void testMiddleInsertsSplitBlocks() {
+        final var container = new ChunkedNumbersContainer();
+        final List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5 * ChunkedNumbersContainer.BLOCK_CAPACITY; i++) {
+            final int index = expected.size() / 2;
+            container.put(index, i);
+            expected.add(index, (long) i);
+        }
+
+        assertContains(expected, container);
+    }
+
+    @Test
+    void testMiddleRemovesOfCollectionsAnalysisScenario() {
+        final int size = 100_000;
+        final var container = new ChunkedNumbersContainer(LongStream.range(0, size).toArray());
+        final List<Long> expected = new ArrayList<>(LongStream.range(0, size).boxed().toList());
+        for (int i = 0; i < 10_000; i++) {
+            container.remove(size / 2);
+            expected.remove(size / 2);
+        }
+
+        assertContains(expected, container);
+    }
+
+    @Test
+    void testRandomOperationsMatchList() {
+        final var random = new Random(24);
+        final var container = new ChunkedNumbersContainer();
+        final List<Long> expected = new ArrayList<>();
+        for (int step = 0; step < 3_000; step++) {
+            final long number = random.nextLong();
+            final int operation = random.nextInt(10);
+            if (operation < 4 || expected.isEmpty()) {
+                final int index = random.nextInt(expected.size() + 1);
+                container.put(index, number);
+                expected.add(index, number);
+            } else if (operation < 8) {
+                final int index = random.nextInt(expected.size());
+                container.remove(index);
+                expected.remove(index);
+            } else if (operation == 8) {
+                final var numbers = random.longs(random.nextInt(300)).toArray();
+                container.putAll(numbers);
+                for (final long n : numbers) {
+                    expected.add(n);
+                }
+            } else {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), container.get(index));
+            }
+        }
+
+        assertContains(expected, container);
+    }
+
+    @Test
+    void testRemovingEverything() {
+        final var container = new ChunkedNumbersContainer(LongStream.range(0, 3_000).toArray());
+        while (!container.isEmpty()) {
+            container.remove(container.getSize() / 3);
+        }
+
+        assertEquals("[]", container.toString());
+        container.putLast(7);
+        assertEquals(7, container.getFirst());
+    }
+
+    @Test
+    void testInvalidIndexes() {
+        final var container = new ChunkedNumbersContainer(INITIAL_ARRAY);
+
+        assertThrows(IllegalArgumentException.class, () -> container.get(-1));
+        assertThrows(IllegalArgumentException.class, () -> container.get(5));
+        assertThrows(IllegalArgumentException.class, () -> container.put(6, 0));
+        assertThrows(IllegalArgumentException.class, () -> container.remove(5));
+
+        container.clear();
+        assertThrows(IllegalArgumentException.class, container::removeLast);
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        final var first = new ChunkedNumbersContainer(INITIAL_ARRAY);
+        final var second = new ChunkedNumbersContainer(new long[]{1, 5});
+        second.put(1, 4);
+        second.put(1, 2);
+        second.put(2, 3);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(new NumbersContainer(INITIAL_ARRAY).hashCode(), first.hashCode());
+    }
+
+    private static void assertContains(final List<Long> expected, final ChunkedNumbersContainer container) {
+        assertEquals(expected.size(), container.getSize());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), container.toArray());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), container.get(i));
+        }
+    }
+}
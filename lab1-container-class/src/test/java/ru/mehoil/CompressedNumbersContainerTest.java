@@ -0,0 +1,109 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CompressedNumbersContainer} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class CompressedNumbersContainerTest {
+
+    private static final int SIZE = 10 * CompressedNumbersContainer.BLOCK_SIZE + 17;
+
+    @Test
+    void testSortedTimestampsAreCompressed() {
+        final var random = new Random(23);
+        final var numbers = new long[SIZE];
+        numbers[0] = 1_700_000_000_000L;
+        for (int i = 1; i < SIZE; i++) {
+            numbers[i] = numbers[i - 1] + 1_000 + random.nextInt(16);
+        }
+
+        final var container = new CompressedNumbersContainer(numbers);
+
+        assertRoundTrip(numbers, container);
+        assertTrue(container.getCompressionRatio() > 10, "Ratio " + container.getCompressionRatio());
+    }
+
+    @Test
+    void testSmallCountersAreCompressed() {
+        final var numbers = new Random(23).longs(SIZE, 0, 1_000).toArray();
+
+        final var container = new CompressedNumbersContainer(numbers);
+
+        assertRoundTrip(numbers, container);
+        assertTrue(container.getCompressionRatio() > 4, "Ratio " + container.getCompressionRatio());
+    }
+
+    @Test
+    void testArbitraryNumbersSurviveOverflowingDifferences() {
+        final var numbers = new Random(23).longs(SIZE).toArray();
+        numbers[5] = Long.MIN_VALUE;
+        numbers[6] = Long.MAX_VALUE;
+        numbers[7] = Long.MIN_VALUE;
+
+        final var container = new CompressedNumbersContainer();
+        for (final long number : numbers) {
+            container.putLast(number);
+        }
+
+        assertRoundTrip(numbers, container);
+    }
+
+    @Test
+    void testConstantNumbersTakeNoBits() {
+        final var numbers = LongStream.range(0, SIZE).map(i -> 42).toArray();
+
+        final var container = new CompressedNumbersContainer(numbers);
+
+        assertRoundTrip(numbers, container);
+        assertTrue(container.getCompressionRatio() > 20, "Ratio " + container.getCompressionRatio());
+    }
+
+    @Test
+    void testRandomAccessAcrossBlocks() {
+        final var numbers = LongStream.range(0, SIZE).map(i -> i * i).toArray();
+        final var container = new CompressedNumbersContainer(numbers);
+        final var random = new Random(1);
+
+        for (int i = 0; i < 1_000; i++) {
+            final int index = random.nextInt(SIZE);
+            assertEquals(numbers[index], container.get(index));
+        }
+        assertEquals(numbers[0], container.getFirst());
+        assertEquals(numbers[SIZE - 1], container.getLast());
+    }
+
+    @Test
+    void testClearAndTrim() {
+        final var container = new CompressedNumbersContainer(LongStream.range(0, SIZE).toArray());
+
+        container.trimToSize();
+        container.putAll(LongStream.range(0, SIZE).toArray());
+        assertEquals(2 * SIZE, container.getSize());
+        assertEquals(SIZE - 1, container.getLast());
+
+        container.clear();
+        assertTrue(container.isEmpty());
+        assertEquals("[]", container.toString());
+        assertThrows(IllegalArgumentException.class, () -> container.get(0));
+    }
+
+    private static void assertRoundTrip(final long[] numbers, final CompressedNumbersContainer container) {
+        assertEquals(numbers.length, container.getSize());
+        assertArrayEquals(numbers, container.toArray());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(numbers[i], container.get(i));
+        }
+        final var sum = new long[1];
+        container.forEach(n -> sum[0] += n);
+        assertEquals(LongStream.of(numbers).sum(), sum[0]);
+    }
+}
@@ -0,0 +1,249 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ConcurrentNumbersContainer} tests, including multi-threaded stress tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class ConcurrentNumbersContainerTest {
+
+    private static final long[] INITIAL_ARRAY = new long[]{1, 2, 3, 4, 5};
+    private static final int THREADS = 4;
+    private static final int NUMBERS_PER_THREAD = 50_000;
+
+    @Test
+    void testPutAndRemove() {
+        final var container = new ConcurrentNumbersContainer(INITIAL_ARRAY);
+
+        container.putFirst(0);
+        container.putLast(6);
+        container.put(3, 42);
+        assertEquals("[0, 1, 2, 42, 3, 4, 5, 6]", container.toString());
+
+        container.remove(3);
+        container.removeFirst();
+        container.removeLast();
+        assertArrayEquals(INITIAL_ARRAY, container.toArray());
+        assertEquals(1, container.getFirst());
+        assertEquals(5, container.getLast());
+    }
+
+    @Test
+    void testRandomOperationsMatchList() {
+        final var random = new Random(19);
+        final var container = new ConcurrentNumbersContainer();
+        final List<Long> expected = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            final long number = random.nextLong();
+            switch (random.nextInt(5)) {
+                case 0, 1 -> {
+                    container.putLast(number);
+                    expected.add(number);
+                }
+                case 2 -> {
+                    final int index = random.nextInt(expected.size() + 1);
+                    container.put(index, number);
+                    expected.add(index, number);
+                }
+                case 3 -> {
+                    if (!expected.isEmpty()) {
+                        final int index = random.nextInt(expected.size());
+                        container.remove(index);
+                        expected.remove(index);
+                    }
+                }
+                default -> {
+                    final var numbers = random.longs(random.nextInt(100)).toArray();
+                    container.putAll(numbers);
+                    for (final long n : numbers) {
+                        expected.add(n);
+                    }
+                }
+            }
+        }
+
+        assertEquals(expected.size(), container.getSize());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), container.get(i));
+        }
+    }
+
+    @Test
+    void testInvalidIndexes() {
+        final var container = new ConcurrentNumbersContainer(INITIAL_ARRAY);
+
+        assertThrows(IllegalArgumentException.class, () -> container.get(-1));
+        assertThrows(IllegalArgumentException.class, () -> container.get(5));
+        assertThrows(IllegalArgumentException.class, () -> container.put(6, 0));
+        assertThrows(IllegalArgumentException.class, () -> container.remove(5));
+
+        container.clear();
+        assertTrue(container.isEmpty());
+        assertThrows(IllegalArgumentException.class, container::removeLast);
+        assertThrows(IllegalArgumentException.class, container::getLast);
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByChanges() {
+        final var container = new ConcurrentNumbersContainer(INITIAL_ARRAY);
+        final var snapshot = container.iterator();
+
+        container.removeFirst();
+        container.removeLast();
+        container.putLast(42);
+        container.put(1, 43);
+        container.clear();
+
+        for (final long number : INITIAL_ARRAY) {
+            assertTrue(snapshot.hasNext());
+            assertEquals(number, snapshot.nextLong());
+        }
+        assertFalse(snapshot.hasNext());
+    }
+
+    @Test
+    void testConcurrentAppendsKeepEveryNumberOnce() throws Exception {
+        final var container = new ConcurrentNumbersContainer();
+
+        runConcurrently(thread -> () -> {
+            for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                final long number = (long) thread * NUMBERS_PER_THREAD + i;
+                if (i % 10 == 0) {
+                    container.putAll(new long[]{number});
+                } else {
+                    container.putLast(number);
+                }
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * NUMBERS_PER_THREAD, container.getSize());
+        final var seen = new HashSet<Long>();
+        final var lastOfThread = new long[THREADS];
+        Arrays.fill(lastOfThread, -1);
+        for (final var it = container.iterator(); it.hasNext(); ) {
+            final long number = it.nextLong();
+            assertTrue(seen.add(number));
+            final int thread = (int) (number / NUMBERS_PER_THREAD);
+            assertTrue(number > lastOfThread[thread], "Appends of a thread are out of order");
+            lastOfThread[thread] = number;
+        }
+    }
+
+    @Test
+    void testEmptyBatchesDoNotStallAppends() throws Exception {
+        final var container = new ConcurrentNumbersContainer();
+        final int numbersPerThread = 10_000;
+
+        runConcurrently(thread -> () -> {
+            for (int i = 0; i < numbersPerThread; i++) {
+                container.putLast(i);
+                container.putAll(new long[0]);
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * numbersPerThread, container.getSize());
+        container.putLast(-1);
+        assertEquals(THREADS * numbersPerThread + 1, container.getSize());
+        assertEquals(-1, container.getLast());
+    }
+
+    @Test
+    void testReadersSeeOnlyPublishedNumbers() throws Exception {
+        final var container = new ConcurrentNumbersContainer();
+        final var done = new AtomicBoolean();
+
+        runConcurrently(thread -> () -> {
+            if (thread < THREADS / 2) {
+                for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                    container.putLast(i + 1);
+                }
+                done.set(true);
+            } else {
+                while (!done.get()) {
+                    final int size = container.getSize();
+                    if (size > 0) {
+                        assertNotEquals(0, container.get(size - 1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Test
+    void testSnapshotsAreConsistentUnderWrites() throws Exception {
+        final int size = 10_000;
+        final var container = new ConcurrentNumbersContainer();
+        for (int i = 0; i < size; i++) {
+            container.putLast(i);
+        }
+        final var done = new AtomicBoolean();
+
+        runConcurrently(thread -> () -> {
+            if (thread == 0) {
+                for (int i = size; i < size + 20_000; i++) {
+                    container.removeFirst();
+                    container.putLast(i);
+                }
+                done.set(true);
+            } else {
+                while (!done.get()) {
+                    final var snapshot = container.iterator();
+                    long previous = snapshot.nextLong();
+                    while (snapshot.hasNext()) {
+                        final long number = snapshot.nextLong();
+                        assertEquals(previous + 1, number, "A snapshot mixes two states");
+                        previous = number;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void runConcurrently(final TaskFactory factory) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(factory.create(thread)));
+            }
+            for (final var future : futures) {
+                try {
+                    future.get();
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof final Error error) {
+                        throw error;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface TaskFactory {
+        Callable<Void> create(int thread);
+    }
+}
@@ -0,0 +1,166 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link MappedNumbersContainer} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class MappedNumbersContainerTest {
+
+    private static final long[] INITIAL_ARRAY = new long[]{1, -2, 3, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSaveAndOpen() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path);
+
+        assertEquals(MappedNumbersContainer.HEADER_SIZE + INITIAL_ARRAY.length * Long.BYTES, Files.size(path));
+        try (final var mapped = MappedNumbersContainer.open(path)) {
+            assertEquals(INITIAL_ARRAY.length, mapped.getSize());
+            for (int i = 0; i < INITIAL_ARRAY.length; i++) {
+                assertEquals(INITIAL_ARRAY[i], mapped.get(i));
+            }
+            assertEquals(new NumbersContainer(INITIAL_ARRAY), mapped.toContainer());
+            assertDoesNotThrow(mapped::verify);
+        }
+    }
+
+    @Test
+    void testNumbersSpanSeveralMappings() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        final var container = new NumbersContainer();
+        for (int i = 0; i < 100_000; i++) {
+            container.putLast(i * 7L - 3);
+        }
+        MappedNumbersContainer.save(container, path);
+
+        try (final var mapped = MappedNumbersContainer.open(path, MapMode.READ_ONLY, 10)) {
+            assertEquals(container.getSize(), mapped.getSize());
+            assertEquals(container.getLast(), mapped.getLast());
+            assertEquals(container, mapped.toContainer());
+            assertDoesNotThrow(mapped::verify);
+        }
+    }
+
+    @Test
+    void testEmptyContainer() throws IOException {
+        final var path = directory.resolve("empty.bin");
+        MappedNumbersContainer.save(new NumbersContainer(), path);
+
+        try (final var mapped = MappedNumbersContainer.open(path)) {
+            assertTrue(mapped.isEmpty());
+            assertTrue(mapped.toContainer().isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> mapped.get(0));
+        }
+    }
+
+    @Test
+    void testFailedSaveRemovesTemporaryFile() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        Files.createDirectories(path.resolve("occupied"));
+
+        assertThrows(IOException.class, () -> MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path));
+        assertFalse(Files.exists(directory.resolve("numbers.bin.tmp")));
+        assertTrue(Files.isDirectory(path));
+    }
+
+    @Test
+    void testTruncatedFileIsRejected() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path);
+        try (final var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 3);
+        }
+
+        final var e = assertThrows(IOException.class, () -> MappedNumbersContainer.open(path));
+        assertEquals("The file is truncated", e.getMessage());
+    }
+
+    @Test
+    void testForeignFileIsRejected() throws IOException {
+        final var path = directory.resolve("text.txt");
+        Files.writeString(path, "definitely not a numbers file");
+
+        assertThrows(IOException.class, () -> MappedNumbersContainer.open(path));
+    }
+
+    @Test
+    void testCorruptedFileFailsVerification() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path);
+        final var bytes = Files.readAllBytes(path);
+        bytes[MappedNumbersContainer.HEADER_SIZE + 9] ^= 1;
+        Files.write(path, bytes);
+
+        try (final var mapped = MappedNumbersContainer.open(path)) {
+            assertThrows(IOException.class, mapped::verify);
+        }
+    }
+
+    @Test
+    void testReadOnlyMappingCannotBeChanged() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path);
+
+        try (final var first = MappedNumbersContainer.open(path);
+             final var second = MappedNumbersContainer.open(path)) {
+            assertThrows(IllegalStateException.class, () -> first.set(0, 42));
+            assertEquals(first.getLast(), second.getLast());
+        }
+    }
+
+    @Test
+    void testPrivateMappingLeavesFileUnchanged() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path);
+
+        try (final var mapped = MappedNumbersContainer.open(path, MapMode.PRIVATE)) {
+            mapped.set(0, 42);
+            assertEquals(42, mapped.getFirst());
+        }
+        try (final var mapped = MappedNumbersContainer.open(path)) {
+            assertEquals(INITIAL_ARRAY[0], mapped.getFirst());
+        }
+    }
+
+    @Test
+    void testReadWriteMappingUpdatesFileAndChecksum() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path);
+
+        try (final var mapped = MappedNumbersContainer.open(path, MapMode.READ_WRITE)) {
+            mapped.set(2, 42);
+        }
+        try (final var mapped = MappedNumbersContainer.open(path)) {
+            assertEquals(42, mapped.get(2));
+            assertDoesNotThrow(mapped::verify);
+        }
+    }
+
+    @Test
+    void testUseAfterClose() throws IOException {
+        final var path = directory.resolve("numbers.bin");
+        MappedNumbersContainer.save(new NumbersContainer(INITIAL_ARRAY), path);
+        final var mapped = MappedNumbersContainer.open(path);
+        mapped.close();
+        mapped.close();
+
+        assertThrows(IllegalStateException.class, () -> mapped.get(0));
+    }
+}
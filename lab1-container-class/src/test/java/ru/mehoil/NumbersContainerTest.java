@@ -2,6 +2,16 @@ package ru.mehoil;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -263,4 +273,217 @@ class NumbersContainerTest {
         assertEquals("[1, 2, 3]", nc.toString());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testEnsureCapacityAndTrimToSizeKeepNumbers() {
+        final var nc = new NumbersContainer(INITIAL_ARRAY);
+
+        nc.ensureCapacity(1_000_000);
+        nc.putLast(6);
+        nc.trimToSize();
+        nc.putFirst(0);
+
+        assertEquals("[0, 1, 2, 3, 4, 5, 6]", nc.toString());
+    }
+
+    @Test
+    void testTrimEmptyContainer() {
+        final var nc = new NumbersContainer();
+
+        nc.trimToSize();
+        for (int i = 0; i < 1_000; i++) {
+            nc.putLast(i);
+        }
+
+        assertEquals(1_000, nc.getSize());
+        assertEquals(999, nc.getLast());
+    }
+
+    @Test
+    void testPutAllLargeArrays() {
+        final var nc = new NumbersContainer();
+        final var numbers = new long[100_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i;
+        }
+
+        nc.putAll(numbers);
+        nc.putAll(numbers);
+
+        assertEquals(2 * numbers.length, nc.getSize());
+        assertEquals(numbers.length - 1, nc.get(numbers.length - 1));
+        assertEquals(0, nc.get(numbers.length));
+    }
+
+    @Test
+    void testMiddlePutAndRemoveShiftTheTail() {
+        final var nc = new NumbersContainer(INITIAL_ARRAY);
+
+        nc.put(1, 10);
+        nc.put(nc.getSize(), 60);
+        nc.remove(3);
+
+        assertEquals("[1, 10, 2, 4, 5, 60]", nc.toString());
+    }
+
+    @Test
+    void testAggregates() {
+        final var nc = new NumbersContainer(new long[]{4, -7, 12, 0, 3});
+
+        assertEquals(12, nc.sum());
+        assertEquals(-7, nc.min());
+        assertEquals(12, nc.max());
+        assertEquals(2.4, nc.mean(), 1e-9);
+        assertEquals(3, nc.count(n -> n > 0));
+        assertEquals(2, nc.indexOf(12));
+        assertEquals(-1, nc.indexOf(100));
+    }
+
+    @Test
+    void testAggregatesOfEmptyContainer() {
+        final var nc = new NumbersContainer();
+
+        assertEquals(0, nc.sum());
+        assertEquals(0, nc.count(n -> true));
+        assertEquals(-1, nc.indexOf(0));
+        assertThrows(IllegalArgumentException.class, nc::min);
+        assertThrows(IllegalArgumentException.class, nc::max);
+        assertThrows(IllegalArgumentException.class, nc::mean);
+    }
+
+    @Test
+    void testParallelAggregatesMatchSequentialOnes() {
+        final var nc = new NumbersContainer();
+        final var numbers = new long[NumbersContainer.PARALLEL_THRESHOLD + 1];
+        long sum = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = (i * 31L) % 1001 - 500;
+            sum += numbers[i];
+        }
+        nc.putAll(numbers);
+
+        assertEquals(sum, nc.sum());
+        assertEquals(-500, nc.min());
+        assertEquals(500, nc.max());
+        assertEquals(Arrays.stream(numbers).filter(n -> n % 3 == 0).count(), nc.count(n -> n % 3 == 0));
+    }
+
+    @Test
+    void testBinarySearch() {
+        final var nc = new NumbersContainer(new long[]{-3, 1, 4, 9, 15});
+        nc.ensureCapacity(1_000);
+
+        assertEquals(3, nc.binarySearch(9));
+        assertEquals(-3, nc.binarySearch(2));
+        assertEquals(-6, nc.binarySearch(100));
+    }
+
+    @Test
+    void testEqualsIgnoresSpareCapacity() {
+        final var first = new NumbersContainer(INITIAL_ARRAY);
+        final var second = new NumbersContainer(INITIAL_ARRAY);
+        second.ensureCapacity(10_000);
+        second.putLast(6);
+        second.removeLast();
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        second.putLast(6);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void testStreams() {
+        final var nc = new NumbersContainer(INITIAL_ARRAY);
+        nc.ensureCapacity(1_000);
+
+        assertArrayEquals(INITIAL_ARRAY, nc.stream().toArray());
+        assertEquals(15, nc.parallelStream().sum());
+        assertEquals(INITIAL_ARRAY.length, nc.spliterator().getExactSizeIfKnown());
+    }
+
+    @Test
+    void testForEach() {
+        final var nc = new NumbersContainer(INITIAL_ARRAY);
+        final var sb = new StringBuilder();
+
+        nc.forEach(sb::append);
+
+        assertEquals("12345", sb.toString());
+    }
+
+    @Test
+    void testWriteToAndReadFromChannel() throws IOException {
+        final var nc = new NumbersContainer(LongStream.range(-50_000, 50_000).toArray());
+        final var bytes = new ByteArrayOutputStream();
+
+        nc.writeTo(Channels.newChannel(bytes));
+
+        assertEquals(Long.BYTES * (nc.getSize() + 1), bytes.size());
+        final var read = new NumbersContainer(new long[]{7});
+        read.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(nc.getSize() + 1, read.getSize());
+        assertEquals(7, read.getFirst());
+        assertEquals(-50_000, read.get(1));
+        assertEquals(49_999, read.getLast());
+    }
+
+    @Test
+    void testBinaryFormatIsLittleEndian() throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+
+        new NumbersContainer(new long[]{0x0102030405060708L}).writeTo(Channels.newChannel(bytes));
+
+        final var expected = new byte[]{1, 0, 0, 0, 0, 0, 0, 0, 8, 7, 6, 5, 4, 3, 2, 1};
+        assertArrayEquals(expected, bytes.toByteArray());
+    }
+
+    @Test
+    void testEmptyContainerRoundTrip() throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        new NumbersContainer().writeTo(Channels.newChannel(bytes));
+
+        final var read = new NumbersContainer();
+        read.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(Long.BYTES, bytes.size());
+        assertTrue(read.isEmpty());
+    }
+
+    @Test
+    void testReadFromTruncatedChannel() throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        new NumbersContainer(INITIAL_ARRAY).writeTo(Channels.newChannel(bytes));
+        final var truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+        final var nc = new NumbersContainer();
+
+        assertThrows(EOFException.class,
+                () -> nc.readFrom(Channels.newChannel(new ByteArrayInputStream(truncated))));
+        assertTrue(nc.isEmpty());
+    }
+
+    @Test
+    void testHugeCountWithoutDataAllocatesNothing() {
+        final var header = ByteBuffer.allocate(2 * Long.BYTES).order(NumbersContainer.BYTE_ORDER)
+                .putLong(Integer.MAX_VALUE - 16)
+                .putLong(42)
+                .array();
+        final var nc = new NumbersContainer();
+
+        assertThrows(EOFException.class,
+                () -> nc.readFrom(Channels.newChannel(new ByteArrayInputStream(header))));
+        assertTrue(nc.isEmpty());
+    }
+
+    @Test
+    void testAppendToMatchesToString() throws IOException {
+        final var nc = new NumbersContainer(LongStream.range(0, 10_000).map(i -> i * -7).toArray());
+        final var writer = new StringWriter();
+
+        nc.appendTo(writer);
+        final var empty = new StringBuilder();
+        new NumbersContainer().appendTo(empty);
+
+        assertEquals(nc.toString(), writer.toString());
+        assertEquals("[]", empty.toString());
+    }
+}
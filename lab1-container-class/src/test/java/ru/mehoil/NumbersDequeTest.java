@@ -0,0 +1,176 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link NumbersDeque} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class NumbersDequeTest {
+
+    private static final long[] INITIAL_ARRAY = new long[]{1, 2, 3, 4, 5};
+
+    @Test
+    void testCreationWithArray() {
+        final var nd = new NumbersDeque(INITIAL_ARRAY);
+
+        assertFalse(nd.isEmpty());
+        assertEquals(INITIAL_ARRAY.length, nd.getSize());
+        for (int i = 0; i < nd.getSize(); i++) {
+            assertEquals(INITIAL_ARRAY[i], nd.get(i));
+        }
+    }
+
+    @Test
+    void testPutAndRemoveAtBothEnds() {
+        final var nd = new NumbersDeque(INITIAL_ARRAY);
+
+        nd.putFirst(0);
+        nd.putLast(6);
+
+        assertEquals("[0, 1, 2, 3, 4, 5, 6]", nd.toString());
+
+        nd.removeFirst();
+        nd.removeLast();
+
+        assertEquals(new NumbersDeque(INITIAL_ARRAY), nd);
+    }
+
+    @Test
+    void testPutAndRemoveMiddle() {
+        final var nd = new NumbersDeque(INITIAL_ARRAY);
+
+        nd.put(1, 10);
+        nd.put(5, 50);
+
+        assertEquals("[1, 10, 2, 3, 4, 50, 5]", nd.toString());
+
+        nd.remove(1);
+        nd.remove(4);
+
+        assertEquals("[1, 2, 3, 4, 5]", nd.toString());
+    }
+
+    @Test
+    void testQueueWrapsAroundWithoutGrowing() {
+        final var nd = new NumbersDeque();
+
+        for (int i = 0; i < 1_000_000; i++) {
+            nd.putLast(i);
+            if (nd.getSize() > 100) {
+                assertEquals(i - 100, nd.getFirst());
+                nd.removeFirst();
+            }
+        }
+
+        assertEquals(100, nd.getSize());
+        assertEquals(999_900, nd.getFirst());
+        assertEquals(999_999, nd.getLast());
+    }
+
+    @Test
+    void testMatchesListUnderRandomOperations() {
+        final var random = new Random(42);
+        final var nd = new NumbersDeque();
+        final List<Long> expected = new ArrayList<>();
+
+        for (int step = 0; step < 50_000; step++) {
+            final long number = random.nextLong();
+            switch (expected.isEmpty() ? random.nextInt(3) : random.nextInt(7)) {
+                case 0 -> {
+                    nd.putFirst(number);
+                    expected.addFirst(number);
+                }
+                case 1 -> {
+                    nd.putLast(number);
+                    expected.addLast(number);
+                }
+                case 2 -> {
+                    final int index = random.nextInt(expected.size() + 1);
+                    nd.put(index, number);
+                    expected.add(index, number);
+                }
+                case 3 -> {
+                    nd.removeFirst();
+                    expected.removeFirst();
+                }
+                case 4 -> {
+                    nd.removeLast();
+                    expected.removeLast();
+                }
+                case 5 -> {
+                    final int index = random.nextInt(expected.size());
+                    nd.remove(index);
+                    expected.remove(index);
+                }
+                default -> {
+                    nd.putAll(new long[]{number, number + 1});
+                    expected.add(number);
+                    expected.add(number + 1);
+                }
+            }
+            assertEquals(expected.size(), nd.getSize());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), nd.get(i));
+        }
+    }
+
+    @Test
+    void testEmptyDeque() {
+        final var nd = new NumbersDeque();
+
+        assertTrue(nd.isEmpty());
+        assertEquals("[]", nd.toString());
+        assertThrows(IllegalArgumentException.class, nd::removeFirst);
+        assertThrows(IllegalArgumentException.class, nd::removeLast);
+        assertThrows(IllegalArgumentException.class, nd::getFirst);
+        assertThrows(IllegalArgumentException.class, nd::getLast);
+    }
+
+    @Test
+    void testCannotUseIndicesOutOfBounds() {
+        final var nd = new NumbersDeque(INITIAL_ARRAY);
+
+        assertThrows(IllegalArgumentException.class, () -> nd.get(-1));
+        assertThrows(IllegalArgumentException.class, () -> nd.get(INITIAL_ARRAY.length));
+        assertThrows(IllegalArgumentException.class, () -> nd.put(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> nd.put(INITIAL_ARRAY.length + 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> nd.remove(INITIAL_ARRAY.length));
+    }
+
+    @Test
+    void testEqualsAndHashCodeIgnoreLayout() {
+        final var wrapped = new NumbersDeque();
+        for (int i = 3; i >= 1; i--) {
+            wrapped.putFirst(i);
+        }
+        final var straight = new NumbersDeque(new long[]{1, 2, 3});
+
+        assertEquals(straight, wrapped);
+        assertEquals(straight.hashCode(), wrapped.hashCode());
+        assertEquals(new NumbersContainer(new long[]{1, 2, 3}).hashCode(), wrapped.hashCode());
+
+        wrapped.putLast(4);
+        assertNotEquals(straight, wrapped);
+    }
+
+    @Test
+    void testClear() {
+        final var nd = new NumbersDeque(INITIAL_ARRAY);
+
+        nd.clear();
+
+        assertTrue(nd.isEmpty());
+        nd.putFirst(1);
+        assertEquals(1, nd.getLast());
+    }
+}
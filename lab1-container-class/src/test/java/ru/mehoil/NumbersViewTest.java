@@ -0,0 +1,85 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link NumbersView} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class NumbersViewTest {
+
+    private static final long[] INITIAL_ARRAY = new long[]{1, 2, 3, 4, 5};
+
+    @Test
+    void testViewShowsWindow() {
+        final var view = new NumbersContainer(INITIAL_ARRAY).subView(1, 4);
+
+        assertEquals(3, view.getSize());
+        assertEquals(2, view.getFirst());
+        assertEquals(4, view.getLast());
+        assertEquals("[2, 3, 4]", view.toString());
+        assertEquals(9, view.stream().sum());
+    }
+
+    @Test
+    void testViewSharesStorage() {
+        final var container = new NumbersContainer(INITIAL_ARRAY);
+        final var view = container.subView(0, 2);
+
+        container.put(0, 42);
+        for (int i = 0; i < 1_000; i++) {
+            container.putLast(i);
+        }
+
+        assertArrayEquals(new long[]{42, 1}, view.toArray());
+    }
+
+    @Test
+    void testNestedView() {
+        final var view = new NumbersContainer(INITIAL_ARRAY).subView(1, 5).subView(1, 3);
+
+        assertArrayEquals(new long[]{3, 4}, view.toArray());
+        assertThrows(IllegalArgumentException.class, () -> view.get(2));
+        assertThrows(IllegalArgumentException.class, () -> view.subView(1, 3));
+    }
+
+    @Test
+    void testForEachAndParallelStream() {
+        final var container = new NumbersContainer(LongStream.range(0, 100_000).toArray());
+        final var view = container.subView(10, 90_010);
+        final var sum = new AtomicLong();
+
+        view.forEach(sum::addAndGet);
+
+        final long expected = LongStream.range(10, 90_010).sum();
+        assertEquals(expected, sum.get());
+        assertEquals(expected, view.parallelStream().sum());
+    }
+
+    @Test
+    void testViewOfShortenedContainer() {
+        final var container = new NumbersContainer(INITIAL_ARRAY);
+        final var view = container.subView(3, 5);
+
+        container.removeLast();
+
+        assertThrows(IllegalStateException.class, () -> view.get(0));
+    }
+
+    @Test
+    void testInvalidBounds() {
+        final var container = new NumbersContainer(INITIAL_ARRAY);
+
+        assertThrows(IllegalArgumentException.class, () -> container.subView(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> container.subView(3, 2));
+        assertThrows(IllegalArgumentException.class, () -> container.subView(0, 6));
+        assertTrue(container.subView(5, 5).isEmpty());
+    }
+}
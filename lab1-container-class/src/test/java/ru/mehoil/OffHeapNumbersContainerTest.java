@@ -0,0 +1,177 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link OffHeapNumbersContainer} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class OffHeapNumbersContainerTest {
+
+    private static final long[] INITIAL_ARRAY = new long[]{1, 2, 3, 4, 5};
+
+    @Test
+    void testCreationWithArray() {
+        try (final var container = new OffHeapNumbersContainer(INITIAL_ARRAY)) {
+            assertFalse(container.isEmpty());
+            assertEquals(INITIAL_ARRAY.length, container.getSize());
+            for (int i = 0; i < INITIAL_ARRAY.length; i++) {
+                assertEquals(INITIAL_ARRAY[i], container.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testPutAndRemove() {
+        try (final var container = new OffHeapNumbersContainer(INITIAL_ARRAY)) {
+            container.putFirst(0);
+            container.putLast(6);
+            container.put(3, 42);
+
+            assertEquals(8, container.getSize());
+            assertEquals(0, container.getFirst());
+            assertEquals(42, container.get(3));
+            assertEquals(6, container.getLast());
+
+            container.remove(3);
+            container.removeFirst();
+            container.removeLast();
+
+            for (int i = 0; i < INITIAL_ARRAY.length; i++) {
+                assertEquals(INITIAL_ARRAY[i], container.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testNumbersSpanSeveralChunks() {
+        try (final var container = new OffHeapNumbersContainer(4)) {
+            final var numbers = new long[1000];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = i * 3L;
+            }
+            container.putAll(new long[]{-1});
+            container.putAll(numbers);
+
+            assertEquals(1001, container.getSize());
+            assertTrue(container.getCapacity() >= 1001);
+            assertEquals(-1, container.getFirst());
+            for (int i = 0; i < numbers.length; i++) {
+                assertEquals(numbers[i], container.get(i + 1L));
+            }
+        }
+    }
+
+    @Test
+    void testMiddleEditsShiftWholeChunks() {
+        try (final var container = new OffHeapNumbersContainer(10)) {
+            final var numbers = new long[3000];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = i;
+            }
+            container.putAll(numbers);
+
+            container.put(1, -1);
+            container.putFirst(-2);
+            assertEquals(-2, container.get(0));
+            assertEquals(0, container.get(1));
+            assertEquals(-1, container.get(2));
+            for (int i = 1; i < numbers.length; i++) {
+                assertEquals(numbers[i], container.get(i + 2L));
+            }
+
+            container.removeFirst();
+            container.remove(1);
+            for (int i = 0; i < numbers.length; i++) {
+                assertEquals(numbers[i], container.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testRandomOperationsMatchList() {
+        final var random = new Random(17);
+        final List<Long> expected = new ArrayList<>();
+        try (final var container = new OffHeapNumbersContainer(3)) {
+            for (int step = 0; step < 5000; step++) {
+                final long number = random.nextLong();
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        container.putLast(number);
+                        expected.add(number);
+                    }
+                    case 1 -> {
+                        final int index = random.nextInt(expected.size() + 1);
+                        container.put(index, number);
+                        expected.add(index, number);
+                    }
+                    case 2 -> {
+                        if (!expected.isEmpty()) {
+                            final int index = random.nextInt(expected.size());
+                            container.remove(index);
+                            expected.remove(index);
+                        }
+                    }
+                    default -> {
+                        if (!expected.isEmpty()) {
+                            container.removeLast();
+                            expected.remove(expected.size() - 1);
+                        }
+                    }
+                }
+            }
+
+            assertEquals(expected.size(), container.getSize());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), container.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testClearFreesMemory() {
+        try (final var container = new OffHeapNumbersContainer(INITIAL_ARRAY)) {
+            container.clear();
+
+            assertTrue(container.isEmpty());
+            assertEquals(0, container.getCapacity());
+
+            container.putLast(7);
+            assertEquals(7, container.getFirst());
+        }
+    }
+
+    @Test
+    void testInvalidIndexes() {
+        try (final var container = new OffHeapNumbersContainer(INITIAL_ARRAY)) {
+            assertThrows(IllegalArgumentException.class, () -> container.get(-1));
+            assertThrows(IllegalArgumentException.class, () -> container.get(5));
+            assertThrows(IllegalArgumentException.class, () -> container.put(6, 0));
+            assertThrows(IllegalArgumentException.class, () -> container.remove(5));
+        }
+        try (final var container = new OffHeapNumbersContainer()) {
+            assertThrows(IllegalArgumentException.class, container::removeLast);
+            assertThrows(IllegalArgumentException.class, container::getFirst);
+        }
+    }
+
+    @Test
+    void testUseAfterClose() {
+        final var container = new OffHeapNumbersContainer(INITIAL_ARRAY);
+        container.close();
+        container.close();
+
+        assertEquals(0, container.getCapacity());
+        assertThrows(IllegalStateException.class, () -> container.get(0));
+        assertThrows(IllegalStateException.class, () -> container.putLast(1));
+        assertThrows(IllegalStateException.class, container::clear);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.mehoil;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link SortedNumbersContainer} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 1.1
+ */
+class SortedNumbersContainerTest {
+
+    private static final long[] INITIAL_ARRAY = new long[]{5, -1, 3, 3, 9};
+
+    @Test
+    void testCreationSortsNumbers() {
+        final var container = new SortedNumbersContainer(INITIAL_ARRAY);
+
+        assertEquals("[-1, 3, 3, 5, 9]", container.toString());
+        assertEquals(-1, container.getFirst());
+        assertEquals(9, container.getLast());
+        assertArrayEquals(new long[]{5, -1, 3, 3, 9}, INITIAL_ARRAY);
+    }
+
+    @Test
+    void testPutKeepsOrder() {
+        final var container = new SortedNumbersContainer(INITIAL_ARRAY);
+
+        container.put(4);
+        container.put(-10);
+        container.put(100);
+        container.put(3);
+
+        assertEquals("[-10, -1, 3, 3, 3, 4, 5, 9, 100]", container.toString());
+    }
+
+    @Test
+    void testPutAllMergesBatches() {
+        final var random = new Random(22);
+        final var container = new SortedNumbersContainer();
+        final List<Long> expected = new ArrayList<>();
+        for (int batch = 0; batch < 20; batch++) {
+            final var numbers = random.longs(random.nextInt(5_000), -1_000, 1_000).toArray();
+            container.putAll(numbers);
+            for (final long number : numbers) {
+                expected.add(number);
+            }
+        }
+        expected.sort(null);
+
+        assertEquals(expected.size(), container.getSize());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), container.stream().toArray());
+    }
+
+    @Test
+    void testLookups() {
+        final var container = new SortedNumbersContainer(INITIAL_ARRAY);
+
+        assertTrue(container.contains(3));
+        assertFalse(container.contains(4));
+        assertEquals(1, container.indexOf(3));
+        assertEquals(-1, container.indexOf(4));
+        assertEquals(0, container.rank(-5));
+        assertEquals(1, container.rank(3));
+        assertEquals(3, container.rank(4));
+        assertEquals(5, container.rank(100));
+    }
+
+    @Test
+    void testRangeQueries() {
+        final var container = new SortedNumbersContainer(INITIAL_ARRAY);
+
+        assertEquals(3, container.countBetween(3, 5));
+        assertEquals(5, container.countBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, container.countBetween(6, 8));
+        assertEquals(0, container.countBetween(9, -1));
+        assertArrayEquals(new long[]{-1, 3, 3}, container.streamBetween(-1, 4).toArray());
+
+        final var sb = new StringBuilder();
+        container.forEachBetween(4, 10, n -> sb.append(n).append(' '));
+        assertEquals("5 9 ", sb.toString());
+    }
+
+    @Test
+    void testRemove() {
+        final var container = new SortedNumbersContainer(INITIAL_ARRAY);
+
+        assertTrue(container.remove(3));
+        assertFalse(container.remove(4));
+        container.removeAt(0);
+
+        assertEquals("[3, 5, 9]", container.toString());
+        assertThrows(IllegalArgumentException.class, () -> container.removeAt(3));
+    }
+
+    @Test
+    void testEqualsAndClear() {
+        final var first = new SortedNumbersContainer(INITIAL_ARRAY);
+        final var second = new SortedNumbersContainer(new long[]{9, 5});
+        second.putAll(new long[]{3, -1, 3});
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        first.clear();
+        assertTrue(first.isEmpty());
+        assertThrows(IllegalArgumentException.class, first::getFirst);
+        assertEquals(0, first.countBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testLargeBulkLoad() {
+        final var numbers = new Random(7).longs(200_000).toArray();
+        final var container = new SortedNumbersContainer(numbers);
+
+        final var sorted = numbers.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, container.stream().toArray());
+    }
+}
@@ -0,0 +1,53 @@
+package ru.mehoil.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mehoil.compiler.Backend;
+import ru.mehoil.compiler.CompiledExpression;
+import ru.mehoil.parsers.ExpressionParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state evaluation of a {@link CompiledExpression} and of its gradient.
+ * <p>
+ * Build with {@code mvn -pl lab2-benchmarks -am package} and run with
+ * {@code java -jar lab2-benchmarks/target/benchmarks.jar CompiledExpressionBenchmark -prof gc};
+ * {@code CompiledExpressionAllocationIT} checks on {@code mvn verify} that neither evaluation allocates.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledExpressionBenchmark {
+
+    @Param({"INTERPRETER", "BYTECODE"})
+    private Backend backend;
+
+    private CompiledExpression compiled;
+    private double[] slots;
+    private double[] gradient;
+
+    @Setup
+    public void setUp() {
+        compiled = ExpressionParser.compile("sqrt(x * x + y * y) + sin(x) * cos(y) - (x - 1) / (y + 2)", backend);
+        slots = new double[]{3.0, 4.0};
+        gradient = new double[2];
+    }
+
+    @Benchmark
+    public double evaluate() {
+        slots[0] += 1e-9;
+        return compiled.evaluate(slots);
+    }
+
+    @Benchmark
+    public double evaluateGradient() {
+        slots[0] += 1e-9;
+        return compiled.evaluateGradient(slots, gradient) + gradient[0];
+    }
+}
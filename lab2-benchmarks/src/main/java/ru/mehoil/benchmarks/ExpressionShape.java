@@ -0,0 +1,55 @@
+package ru.mehoil.benchmarks;
+
+/**
+ * Kinds of expressions the parser is benchmarked on. All of them use the variables
+ * {@code x}, {@code y} and {@code z}.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public enum ExpressionShape {
+    /**
+     * Typical expression typed into the console.
+     */
+    SHORT {
+        @Override
+        String expression() {
+            return "2 * x + sin(y) / (z - 1.5)";
+        }
+    },
+    /**
+     * Brackets and functions nested {@value #DEEP_NESTING} levels deep.
+     */
+    DEEP_NESTED {
+        @Override
+        String expression() {
+            var expression = "x";
+            for (int i = 0; i < DEEP_NESTING; i++) {
+                expression = i % 10 == 9
+                        ? "sin(" + expression + ")"
+                        : "(" + expression + (i % 2 == 0 ? " + y)" : " * 1.5)");
+            }
+            return expression;
+        }
+    },
+    /**
+     * {@value #FLAT_TERMS} terms without any brackets.
+     */
+    LONG_FLAT {
+        @Override
+        String expression() {
+            final var operators = new String[]{" + ", " * ", " - ", " / "};
+            final var operands = new String[]{"x", "2.5", "y", "z", "7"};
+            final var expression = new StringBuilder("x");
+            for (int i = 1; i < FLAT_TERMS; i++) {
+                expression.append(operators[i % operators.length]).append(operands[i % operands.length]);
+            }
+            return expression.toString();
+        }
+    };
+
+    static final int DEEP_NESTING = 200;
+    static final int FLAT_TERMS = 2_000;
+
+    abstract String expression();
+}
@@ -0,0 +1,61 @@
+package ru.mehoil.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mehoil.data.Token;
+import ru.mehoil.parsers.ExpressionLexer;
+import ru.mehoil.parsers.ShuntingYardParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every stage of parsing an expression from a string, measured separately
+ * on each {@link ExpressionShape}.
+ * <p>
+ * Build with {@code mvn -pl lab2-benchmarks -am package} and run with
+ * {@code java -jar lab2-benchmarks/target/benchmarks.jar -prof gc}; the
+ * {@code gc.alloc.rate.norm} column gives the bytes allocated per operation.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final Map<String, Double> VARIABLES = Map.of("x", 0.5, "y", 2.0, "z", 3.0);
+
+    @Param({"SHORT", "DEEP_NESTED", "LONG_FLAT"})
+    private ExpressionShape shape;
+
+    private String expression;
+    private List<Token> tokens;
+    private List<Token> parsedSYA;
+
+    @Setup
+    public void setUp() {
+        expression = shape.expression();
+        tokens = ExpressionLexer.tokenize(expression);
+        parsedSYA = ShuntingYardParser.parseArithmeticalExpression(tokens);
+    }
+
+    @Benchmark
+    public List<Token> tokenize() {
+        return ExpressionLexer.tokenize(expression);
+    }
+
+    @Benchmark
+    public List<Token> parseArithmeticalExpression() {
+        return ShuntingYardParser.parseArithmeticalExpression(tokens);
+    }
+
+    @Benchmark
+    public double solveParsedExpression() {
+        return ShuntingYardParser.solveParsedExpression(parsedSYA, VARIABLES);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.mehoil.benchmarks;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link CompiledExpressionBenchmark} with the GC profiler to check
+ * that neither a steady-state evaluation nor a gradient evaluation allocates.
+ * <p>
+ * Forks JMH, so it runs in the {@code verify} phase, e.g. {@code mvn -pl lab2-benchmarks -am verify},
+ * rather than with the unit tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class CompiledExpressionAllocationIT {
+
+    private static final double MAX_BYTES_PER_OPERATION = 1.0;
+
+    @Test
+    void testEvaluationAllocatesNothing() throws Exception {
+        final var options = new OptionsBuilder()
+                .include(CompiledExpressionBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(2)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        for (final var runResult : new Runner(options).run()) {
+            final var allocated = runResult.getAggregatedResult().getSecondaryResults().entrySet().stream()
+                    .filter(entry -> entry.getKey().endsWith("gc.alloc.rate.norm"))
+                    .findFirst()
+                    .orElseThrow()
+                    .getValue()
+                    .getScore();
+
+            assertTrue(allocated < MAX_BYTES_PER_OPERATION,
+                    "Expected 0 B/op for " + runResult.getParams().getBenchmark() + " "
+                            + runResult.getParams().getParam("backend") + ", got " + allocated + " B/op");
+        }
+    }
+}
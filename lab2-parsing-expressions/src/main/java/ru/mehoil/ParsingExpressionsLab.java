@@ -1,27 +1,70 @@
 package ru.mehoil;
 
-import java.util.Scanner;
+import ru.mehoil.data.EvaluationResult;
+import ru.mehoil.pipeline.StreamingEvaluator;
+import ru.mehoil.service.EvaluationJob;
+import ru.mehoil.service.EvaluationService;
 
-import static ru.mehoil.parsers.ExpressionParser.parse;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Scanner;
 
 /**
  * Application entry point.
+ * <p>
+ * Without arguments expressions are read from the console one at a time.
+ * With arguments a whole file is evaluated by {@link StreamingEvaluator}:
+ * <ul>
+ *     <li>{@code <input> <output>} evaluates every line of the input;</li>
+ *     <li>{@code <input> <output> <expression>} evaluates the expression for every row of the input.</li>
+ * </ul>
  *
  * @author Mikhail Dorokhov
  * @version 1.0
  */
 public class ParsingExpressionsLab {
-    public static void main(final String[] args) {
+    public static void main(final String[] args) throws IOException {
+        if (args.length > 0) {
+            evaluateFile(args);
+            return;
+        }
         final var scanner = new Scanner(System.in);
-        while (scanner.hasNext()) {
-            final var expression = scanner.nextLine();
-            if (expression.equalsIgnoreCase("exit")) {
-                break;
-            }
-            final var result = parse(expression);
-            if (!Double.isNaN(result)) {
-                System.out.println("=> " + result);
+        try (final var service = new EvaluationService()) {
+            while (scanner.hasNext()) {
+                final var expression = scanner.nextLine();
+                if (expression.equalsIgnoreCase("exit")) {
+                    break;
+                }
+                if (expression.isBlank()) {
+                    continue;
+                }
+                final var job = new EvaluationJob(expression, name -> {
+                    System.out.print("Enter the value of '" + name + "': ");
+                    return scanner.nextDouble();
+                });
+                switch (service.evaluate(job)) {
+                    case EvaluationResult.Value value -> System.out.println("=> " + value.value());
+                    case EvaluationResult.Failure failure -> System.err.println(failure.message());
+                }
             }
         }
     }
-}
\ No newline at end of file
+
+    private static void evaluateFile(final String[] args) throws IOException {
+        if (args.length != 2 && args.length != 3) {
+            System.err.println("Usage: <input> <output> [expression]");
+            return;
+        }
+        final var input = Path.of(args[0]);
+        final var output = Path.of(args[1]);
+        try (final var service = new EvaluationService(); final var evaluator = new StreamingEvaluator(service)) {
+            final var stats = args.length == 2
+                    ? evaluator.evaluateExpressions(input, output)
+                    : evaluator.evaluateRows(args[2], input, output);
+            System.out.printf("Evaluated %d lines (%d failed) in %d ms, %.0f lines/s%n",
+                    stats.lines(), stats.failures(), stats.elapsed().toMillis(), stats.throughput());
+        } catch (final IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.mehoil.cache;
+
+/**
+ * Snapshot of {@link ExpressionCache} counters.
+ *
+ * @param hits      - lookups answered from the cache
+ * @param misses    - lookups that had to compile the expression
+ * @param evictions - entries dropped to stay within the bounds
+ * @param size      - entries currently cached
+ * @param weight    - total weight of the cached entries
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        long weight
+) {
+    public double hitRate() {
+        final long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+}
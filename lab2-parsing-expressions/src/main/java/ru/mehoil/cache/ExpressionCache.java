@@ -0,0 +1,203 @@
+package ru.mehoil.cache;
+
+import ru.mehoil.compiler.Backend;
+import ru.mehoil.compiler.CompiledExpression;
+import ru.mehoil.operators.OperatorRegistry;
+import ru.mehoil.parsers.ExpressionLexer;
+import ru.mehoil.parsers.ExpressionParser;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe LRU cache of {@link CompiledExpression} keyed by the expression text.
+ * <p>
+ * The key is made of the tokens of the expression joined by single spaces, so that
+ * whitespaces between tokens do not matter while those separating operator symbols,
+ * like {@code * *} and {@code **}, still do. The cache is bounded both by the number of entries and by
+ * their total weight, where the weight of an entry is the number of operations
+ * in its program. Entries are spread over independently locked segments, so that
+ * lookups from different threads rarely contend. Invalid expressions are never cached.
+ * <p>
+ * Every entry remembers the {@link OperatorRegistry#version()} it was compiled with. Once
+ * a definition is registered, earlier entries are treated as misses and compiled again.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public class ExpressionCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+
+    private final Segment[] segments;
+    private final Backend backend;
+    private final OperatorRegistry registry;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpressionCache(final int maxEntries, final long maxWeight) {
+        this(maxEntries, maxWeight, Backend.INTERPRETER);
+    }
+
+    public ExpressionCache(final int maxEntries, final long maxWeight, final Backend backend) {
+        this(maxEntries, maxWeight, backend, OperatorRegistry.defaultRegistry());
+    }
+
+    public ExpressionCache(
+            final int maxEntries,
+            final long maxWeight,
+            final Backend backend,
+            final OperatorRegistry registry
+    ) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        final int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maxEntries / MIN_ENTRIES_PER_SEGMENT)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(Math.ceilDiv(maxEntries, count), Math.ceilDiv(maxWeight, count));
+        }
+        this.backend = backend;
+        this.registry = registry;
+    }
+
+    /**
+     * Returns the compiled expression, compiling and caching it on a miss.
+     *
+     * @param expression expression to compile
+     * @return compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public CompiledExpression get(final String expression) {
+        final int version = registry.version();
+        final var key = normalize(expression, registry);
+        final var segment = segmentFor(key);
+
+        final var cached = segment.get(key, version);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final var compiled = ExpressionParser.compile(expression, backend, registry);
+        return segment.put(key, new Entry(compiled, version));
+    }
+
+    public void clear() {
+        for (final var segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size = 0;
+        long weight = 0;
+        for (final var segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+                weight += segment.weight;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size, weight);
+    }
+
+    private Segment segmentFor(final String key) {
+        final int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression contains an unknown character
+     */
+    private static String normalize(final String expression, final OperatorRegistry registry) {
+        final var tokens = ExpressionLexer.tokenize(expression, registry);
+        final var sb = new StringBuilder(expression.length() + tokens.size());
+        for (final var token : tokens) {
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            sb.append(token.value());
+        }
+        return sb.toString();
+    }
+
+    private static long weightOf(final CompiledExpression compiled) {
+        return compiled.size();
+    }
+
+    private record Entry(CompiledExpression compiled, int version) {
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxEntries;
+        private final long maxWeight;
+        private long weight;
+
+        private Segment(final int maxEntries, final long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        private CompiledExpression get(final String key, final int version) {
+            lock.lock();
+            try {
+                final var entry = entries.get(key);
+                return entry != null && entry.version() == version ? entry.compiled() : null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return the expression cached under the key, which may have been put concurrently by another thread
+         */
+        private CompiledExpression put(final String key, final Entry entry) {
+            final long entryWeight = weightOf(entry.compiled());
+            if (entryWeight > maxWeight) {
+                return entry.compiled();
+            }
+            lock.lock();
+            try {
+                final var existing = entries.get(key);
+                if (existing != null) {
+                    if (existing.version() == entry.version()) {
+                        return existing.compiled();
+                    }
+                    weight -= weightOf(existing.compiled());
+                }
+                entries.put(key, entry);
+                weight += entryWeight;
+                final var iterator = entries.values().iterator();
+                while ((entries.size() > maxEntries || weight > maxWeight) && iterator.hasNext()) {
+                    final var eldest = iterator.next();
+                    iterator.remove();
+                    weight -= weightOf(eldest.compiled());
+                    evictions.increment();
+                }
+                return entry.compiled();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+                weight = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
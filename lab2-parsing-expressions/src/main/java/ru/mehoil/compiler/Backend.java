@@ -0,0 +1,20 @@
+package ru.mehoil.compiler;
+
+/**
+ * Way a {@link CompiledExpression} is executed.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public enum Backend {
+    /**
+     * Opcodes are run by the interpreter loop of {@link CompiledExpression}.
+     */
+    INTERPRETER,
+    /**
+     * Opcodes are translated into a generated JVM class, so the JIT compiles
+     * the expression as if it was written in Java.
+     * Falls back to {@link #INTERPRETER} if the class cannot be generated.
+     */
+    BYTECODE
+}
@@ -0,0 +1,159 @@
+package ru.mehoil.compiler;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import ru.mehoil.operators.Builtins;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Translates the opcodes of a {@link CompiledExpression} into a hidden class
+ * implementing {@link ExpressionFunction}.
+ * <p>
+ * Constants are embedded into the class, variables are read straight from the slots
+ * array, registers become local variables and operations become plain JVM instructions
+ * or static calls, which the JIT is free to inline. Implementations of non-builtin
+ * operations are kept in a final field of the hidden class and called through their
+ * interface; operations taking more than two arguments are not supported.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+final class BytecodeGenerator {
+
+    private static final String CLASS_NAME = Type.getInternalName(BytecodeGenerator.class)
+            .replace("BytecodeGenerator", "GeneratedExpression");
+    private static final String BUILTINS = Type.getInternalName(Builtins.class);
+    private static final String MATH = Type.getInternalName(Math.class);
+    private static final String UNARY_OPERATOR = Type.getInternalName(DoubleUnaryOperator.class);
+    private static final String BINARY_OPERATOR = Type.getInternalName(DoubleBinaryOperator.class);
+    private static final String UNARY_DESCRIPTOR = "(D)D";
+    private static final String BINARY_DESCRIPTOR = "(DD)D";
+    private static final String FUNCTIONS_FIELD = "functions";
+    private static final String FUNCTIONS_DESCRIPTOR = "[Ljava/lang/Object;";
+    private static final int FIRST_REGISTER_LOCAL = 2;
+
+    private BytecodeGenerator() {
+    }
+
+    static ExpressionFunction generate(
+            final int[] opcodes,
+            final int[] operands,
+            final double[] constants,
+            final Operation[] functions
+    ) {
+        final byte[] bytes = generateClass(opcodes, operands, constants);
+        final Object[] implementations = Arrays.stream(functions).map(Operation::implementation).toArray();
+        try {
+            final var lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            final var constructor = lookup.findConstructor(
+                    lookup.lookupClass(), MethodType.methodType(void.class, Object[].class)
+            );
+            return (ExpressionFunction) constructor.invoke(implementations);
+        } catch (final Throwable e) {
+            throw new IllegalStateException("Failed to define generated expression", e);
+        }
+    }
+
+    private static byte[] generateClass(final int[] opcodes, final int[] operands, final double[] constants) {
+        final var writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        writer.visit(V21, ACC_FINAL | ACC_SUPER, CLASS_NAME, null, Type.getInternalName(Object.class),
+                new String[]{Type.getInternalName(ExpressionFunction.class)});
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, FUNCTIONS_FIELD, FUNCTIONS_DESCRIPTOR, null, null).visitEnd();
+
+        final var constructor = writer.visitMethod(0, "<init>", "(" + FUNCTIONS_DESCRIPTOR + ")V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitFieldInsn(PUTFIELD, CLASS_NAME, FUNCTIONS_FIELD, FUNCTIONS_DESCRIPTOR);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        int registers = 0;
+        for (int i = 0; i < opcodes.length; i++) {
+            if (opcodes[i] == Opcodes.STORE) {
+                registers = Math.max(registers, operands[i] + 1);
+            }
+        }
+        final int temporaryLocal = FIRST_REGISTER_LOCAL + 2 * registers;
+
+        final var method = writer.visitMethod(ACC_PUBLIC | ACC_FINAL, "evaluate", "([D)D", null, null);
+        method.visitCode();
+        for (int i = 0; i < opcodes.length; i++) {
+            emit(method, opcodes[i], operands[i], constants, temporaryLocal);
+        }
+        method.visitInsn(DRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void emit(
+            final MethodVisitor method,
+            final int opcode,
+            final int operand,
+            final double[] constants,
+            final int temporaryLocal
+    ) {
+        switch (opcode) {
+            case Opcodes.CONSTANT -> method.visitLdcInsn(constants[operand]);
+            case Opcodes.VARIABLE -> {
+                method.visitVarInsn(ALOAD, 1);
+                method.visitLdcInsn(operand);
+                method.visitInsn(DALOAD);
+            }
+            case Opcodes.ADD -> method.visitInsn(DADD);
+            case Opcodes.SUBTRACT -> method.visitInsn(DSUB);
+            case Opcodes.MULTIPLY -> method.visitInsn(DMUL);
+            case Opcodes.DIVIDE -> method.visitMethodInsn(INVOKESTATIC, BUILTINS, "divide", BINARY_DESCRIPTOR, false);
+            case Opcodes.NEGATE -> method.visitInsn(DNEG);
+            case Opcodes.POWER -> method.visitMethodInsn(INVOKESTATIC, MATH, "pow", BINARY_DESCRIPTOR, false);
+            case Opcodes.MAX -> method.visitMethodInsn(INVOKESTATIC, MATH, "max", BINARY_DESCRIPTOR, false);
+            case Opcodes.MIN -> method.visitMethodInsn(INVOKESTATIC, MATH, "min", BINARY_DESCRIPTOR, false);
+            case Opcodes.SIN -> method.visitMethodInsn(INVOKESTATIC, MATH, "sin", UNARY_DESCRIPTOR, false);
+            case Opcodes.COS -> method.visitMethodInsn(INVOKESTATIC, MATH, "cos", UNARY_DESCRIPTOR, false);
+            case Opcodes.SQRT -> method.visitMethodInsn(INVOKESTATIC, BUILTINS, "sqrt", UNARY_DESCRIPTOR, false);
+            case Opcodes.CALL_UNARY -> {
+                // the implementation has to go below the argument
+                method.visitVarInsn(DSTORE, temporaryLocal);
+                loadFunction(method, operand, UNARY_OPERATOR);
+                method.visitVarInsn(DLOAD, temporaryLocal);
+                method.visitMethodInsn(INVOKEINTERFACE, UNARY_OPERATOR, "applyAsDouble", UNARY_DESCRIPTOR, true);
+            }
+            case Opcodes.CALL_BINARY -> {
+                method.visitVarInsn(DSTORE, temporaryLocal + 2);
+                method.visitVarInsn(DSTORE, temporaryLocal);
+                loadFunction(method, operand, BINARY_OPERATOR);
+                method.visitVarInsn(DLOAD, temporaryLocal);
+                method.visitVarInsn(DLOAD, temporaryLocal + 2);
+                method.visitMethodInsn(INVOKEINTERFACE, BINARY_OPERATOR, "applyAsDouble", BINARY_DESCRIPTOR, true);
+            }
+            case Opcodes.STORE -> {
+                method.visitInsn(DUP2);
+                method.visitVarInsn(DSTORE, FIRST_REGISTER_LOCAL + 2 * operand);
+            }
+            case Opcodes.LOAD -> method.visitVarInsn(DLOAD, FIRST_REGISTER_LOCAL + 2 * operand);
+            default -> throw new UnsupportedOperationException("Unsupported opcode " + opcode);
+        }
+    }
+
+    private static void loadFunction(final MethodVisitor method, final int index, final String type) {
+        method.visitVarInsn(ALOAD, 0);
+        method.visitFieldInsn(GETFIELD, CLASS_NAME, FUNCTIONS_FIELD, FUNCTIONS_DESCRIPTOR);
+        method.visitLdcInsn(index);
+        method.visitInsn(AALOAD);
+        method.visitTypeInsn(CHECKCAST, type);
+    }
+}
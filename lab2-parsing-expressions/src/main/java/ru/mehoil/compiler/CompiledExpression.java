@@ -0,0 +1,585 @@
+package ru.mehoil.compiler;
+
+import ru.mehoil.operators.Builtins;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, thread-safe form of an expression that can be evaluated
+ * many times with different variable values without any string processing.
+ * <p>
+ * Every variable is bound to a slot, the slot order is given by {@link #variables()}.
+ * The program is a sequence of {@link Opcodes} run on a primitive stack, whose size
+ * is known at compile time, so evaluating by slots does not allocate. Values of shared
+ * subexpressions are kept in registers placed right above the deepest stack element.
+ * Operations that are not {@link Builtins} are called through implementations
+ * resolved at compile time.
+ * The same program can compute the gradient along with the value using forward-mode
+ * automatic differentiation.
+ * With the {@link Backend#BYTECODE} backend the same program runs as a generated class instead.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public final class CompiledExpression {
+
+    private static final int INITIAL_STACK_SIZE = 16;
+    private static final int BATCH_BLOCK_SIZE = 1024;
+    private static final ThreadLocal<StackPool> STACKS = ThreadLocal.withInitial(StackPool::new);
+
+    private final List<String> variables;
+    private final int[] opcodes;
+    private final int[] operands;
+    private final double[] constants;
+    private final Operation[] functions;
+    private final int maxStackDepth;
+    private final int stackSize;
+    private final OptimizationReport optimization;
+    private final ExpressionFunction function;
+
+    CompiledExpression(
+            final List<String> variables,
+            final int[] opcodes,
+            final int[] operands,
+            final double[] constants,
+            final Operation[] functions,
+            final int maxStackDepth,
+            final int registers,
+            final OptimizationReport optimization,
+            final ExpressionFunction function
+    ) {
+        this.variables = variables;
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.constants = constants;
+        this.functions = functions;
+        this.maxStackDepth = maxStackDepth;
+        this.stackSize = maxStackDepth + registers;
+        this.optimization = optimization;
+        this.function = function;
+    }
+
+    /**
+     * @return names of the variables in slot order
+     */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /**
+     * @return backend actually used to evaluate the expression
+     */
+    public Backend backend() {
+        return function != null ? Backend.BYTECODE : Backend.INTERPRETER;
+    }
+
+    /**
+     * @return number of operations in the program
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    /**
+     * @return stack size required by {@link #evaluate(double[], double[])}, registers included
+     */
+    public int stackSize() {
+        return stackSize;
+    }
+
+    /**
+     * @return what the optimizer did to the program
+     */
+    public OptimizationReport optimization() {
+        return optimization;
+    }
+
+    /**
+     * Evaluates the expression, taking variable values by name.
+     *
+     * @param variableValues values of every variable used in the expression
+     * @return evaluation result
+     */
+    public double evaluate(final Map<String, Double> variableValues) {
+        return evaluate(VariableResolver.of(variableValues));
+    }
+
+    /**
+     * Evaluates the expression, asking the resolver for the value of every variable once.
+     *
+     * @param resolver supplies variable values, called in slot order
+     * @return evaluation result
+     */
+    public double evaluate(final VariableResolver resolver) {
+        final var slots = new double[variables.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = resolver.resolve(variables.get(i));
+        }
+        return evaluate(slots);
+    }
+
+    /**
+     * Evaluates the expression, taking variable values by slot.
+     * Stacks are reused between calls made by the same thread, one per nesting level.
+     *
+     * @param slots values of the variables in the order of {@link #variables()}
+     * @return evaluation result
+     */
+    public double evaluate(final double... slots) {
+        if (function != null) {
+            checkSlots(slots);
+            return function.evaluate(slots);
+        }
+        final var pool = STACKS.get();
+        final var stack = pool.acquire(stackSize);
+        try {
+            return evaluate(slots, stack);
+        } finally {
+            pool.release();
+        }
+    }
+
+    /**
+     * Evaluates the expression on the caller-provided stack.
+     *
+     * @param slots values of the variables in the order of {@link #variables()}
+     * @param stack working stack of at least {@link #stackSize()} elements
+     * @return evaluation result
+     */
+    public double evaluate(final double[] slots, final double[] stack) {
+        checkSlots(slots);
+        if (function != null) {
+            return function.evaluate(slots);
+        }
+        if (stack.length < stackSize) {
+            throw new IllegalArgumentException("Error: expected stack of " + stackSize + " elements");
+        }
+        int top = -1;
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (opcodes[i]) {
+                case Opcodes.CONSTANT -> stack[++top] = constants[operands[i]];
+                case Opcodes.VARIABLE -> stack[++top] = slots[operands[i]];
+                case Opcodes.ADD -> {
+                    top--;
+                    stack[top] += stack[top + 1];
+                }
+                case Opcodes.SUBTRACT -> {
+                    top--;
+                    stack[top] -= stack[top + 1];
+                }
+                case Opcodes.MULTIPLY -> {
+                    top--;
+                    stack[top] *= stack[top + 1];
+                }
+                case Opcodes.DIVIDE -> {
+                    top--;
+                    stack[top] = Builtins.divide(stack[top], stack[top + 1]);
+                }
+                case Opcodes.NEGATE -> stack[top] = -stack[top];
+                case Opcodes.POWER -> {
+                    top--;
+                    stack[top] = Math.pow(stack[top], stack[top + 1]);
+                }
+                case Opcodes.MAX -> {
+                    top--;
+                    stack[top] = Math.max(stack[top], stack[top + 1]);
+                }
+                case Opcodes.MIN -> {
+                    top--;
+                    stack[top] = Math.min(stack[top], stack[top + 1]);
+                }
+                case Opcodes.SIN -> stack[top] = Math.sin(stack[top]);
+                case Opcodes.COS -> stack[top] = Math.cos(stack[top]);
+                case Opcodes.SQRT -> stack[top] = Builtins.sqrt(stack[top]);
+                case Opcodes.CALL_UNARY -> stack[top] = functions[operands[i]].unary().applyAsDouble(stack[top]);
+                case Opcodes.CALL_BINARY -> {
+                    top--;
+                    stack[top] = functions[operands[i]].binary().applyAsDouble(stack[top], stack[top + 1]);
+                }
+                case Opcodes.CALL_NARY -> {
+                    final var operation = functions[operands[i]];
+                    top -= operation.arity() - 1;
+                    stack[top] = callNary(operation, stack, top);
+                }
+                case Opcodes.STORE -> stack[maxStackDepth + operands[i]] = stack[top];
+                case Opcodes.LOAD -> stack[++top] = stack[maxStackDepth + operands[i]];
+                default -> throw new IllegalStateException("Unknown opcode " + opcodes[i]);
+            }
+        }
+        return stack[top];
+    }
+
+    /**
+     * @return work stack size required by {@link #evaluateGradient(double[], double[], double[])}
+     */
+    public int gradientStackSize() {
+        return stackSize * (variables.size() + 1);
+    }
+
+    /**
+     * Evaluates the expression together with its partial derivatives by every variable.
+     * Work stacks are reused between calls made by the same thread, one per nesting level.
+     *
+     * @param slots    values of the variables in the order of {@link #variables()}
+     * @param gradient receives partial derivatives in the order of {@link #variables()}
+     * @return evaluation result
+     */
+    public double evaluateGradient(final double[] slots, final double[] gradient) {
+        final var pool = STACKS.get();
+        final var stack = pool.acquire(gradientStackSize());
+        try {
+            return evaluateGradient(slots, gradient, stack);
+        } finally {
+            pool.release();
+        }
+    }
+
+    /**
+     * Evaluates the expression together with its partial derivatives by every variable
+     * in a single pass of forward-mode automatic differentiation: every stack entry holds
+     * a value followed by its derivatives, which are propagated by the chain rule.
+     * The bytecode backend is not used here. Only {@link Builtins} are differentiable.
+     *
+     * @param slots    values of the variables in the order of {@link #variables()}
+     * @param gradient receives partial derivatives in the order of {@link #variables()}
+     * @param stack    working stack of at least {@link #gradientStackSize()} elements
+     * @return evaluation result
+     * @throws UnsupportedOperationException if the expression calls an operation that is not builtin
+     */
+    public double evaluateGradient(final double[] slots, final double[] gradient, final double[] stack) {
+        checkSlots(slots);
+        final int n = variables.size();
+        if (gradient.length < n) {
+            throw new IllegalArgumentException("Error: expected gradient of " + n + " elements");
+        }
+        if (stack.length < gradientStackSize()) {
+            throw new IllegalArgumentException("Error: expected stack of " + gradientStackSize() + " elements");
+        }
+        final int width = n + 1;
+        int top = -width;
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (opcodes[i]) {
+                case Opcodes.CONSTANT -> {
+                    top += width;
+                    stack[top] = constants[operands[i]];
+                    Arrays.fill(stack, top + 1, top + width, 0);
+                }
+                case Opcodes.VARIABLE -> {
+                    top += width;
+                    stack[top] = slots[operands[i]];
+                    Arrays.fill(stack, top + 1, top + width, 0);
+                    stack[top + 1 + operands[i]] = 1;
+                }
+                case Opcodes.ADD -> {
+                    top -= width;
+                    for (int j = 0; j < width; j++) {
+                        stack[top + j] += stack[top + width + j];
+                    }
+                }
+                case Opcodes.SUBTRACT -> {
+                    top -= width;
+                    for (int j = 0; j < width; j++) {
+                        stack[top + j] -= stack[top + width + j];
+                    }
+                }
+                case Opcodes.MULTIPLY -> {
+                    top -= width;
+                    final double a = stack[top];
+                    final double b = stack[top + width];
+                    stack[top] = a * b;
+                    for (int j = 1; j < width; j++) {
+                        stack[top + j] = stack[top + j] * b + a * stack[top + width + j];
+                    }
+                }
+                case Opcodes.DIVIDE -> {
+                    top -= width;
+                    final double b = stack[top + width];
+                    final double value = Builtins.divide(stack[top], b);
+                    stack[top] = value;
+                    for (int j = 1; j < width; j++) {
+                        stack[top + j] = (stack[top + j] - value * stack[top + width + j]) / b;
+                    }
+                }
+                case Opcodes.NEGATE -> scale(stack, top, width, -1);
+                case Opcodes.POWER -> {
+                    top -= width;
+                    final double a = stack[top];
+                    final double b = stack[top + width];
+                    final double value = Math.pow(a, b);
+                    final double byBase = b * Math.pow(a, b - 1);
+                    stack[top] = value;
+                    for (int j = 1; j < width; j++) {
+                        final double exponentDerivative = stack[top + width + j];
+                        stack[top + j] = stack[top + j] * byBase
+                                + (exponentDerivative == 0 ? 0 : exponentDerivative * value * Math.log(a));
+                    }
+                }
+                case Opcodes.MAX, Opcodes.MIN -> {
+                    top -= width;
+                    final double a = stack[top];
+                    final double b = stack[top + width];
+                    if (opcodes[i] == Opcodes.MAX ? b > a : b < a) {
+                        System.arraycopy(stack, top + width, stack, top, width);
+                    }
+                }
+                case Opcodes.SIN -> {
+                    final double a = stack[top];
+                    stack[top] = Math.sin(a);
+                    scale(stack, top + 1, n, Math.cos(a));
+                }
+                case Opcodes.COS -> {
+                    final double a = stack[top];
+                    stack[top] = Math.cos(a);
+                    scale(stack, top + 1, n, -Math.sin(a));
+                }
+                case Opcodes.SQRT -> {
+                    final double value = Builtins.sqrt(stack[top]);
+                    stack[top] = value;
+                    scale(stack, top + 1, n, 0.5 / value);
+                }
+                case Opcodes.CALL_UNARY, Opcodes.CALL_BINARY, Opcodes.CALL_NARY ->
+                        throw new UnsupportedOperationException(
+                                "Error: '" + functions[operands[i]].name() + "' is not differentiable"
+                        );
+                case Opcodes.STORE ->
+                        System.arraycopy(stack, top, stack, (maxStackDepth + operands[i]) * width, width);
+                case Opcodes.LOAD -> {
+                    top += width;
+                    System.arraycopy(stack, (maxStackDepth + operands[i]) * width, stack, top, width);
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + opcodes[i]);
+            }
+        }
+        System.arraycopy(stack, top + 1, gradient, 0, n);
+        return stack[top];
+    }
+
+    /**
+     * Evaluates the expression for every row of the given variable columns.
+     *
+     * @param columns values of every variable used in the expression, by name
+     * @param output  receives one result per row
+     */
+    public void evaluateBatch(final Map<String, double[]> columns, final double[] output) {
+        final var slotColumns = new double[variables.size()][];
+        for (int i = 0; i < slotColumns.length; i++) {
+            slotColumns[i] = columns.get(variables.get(i));
+            if (slotColumns[i] == null) {
+                throw new UnboundVariableException("Error: no values for variable '" + variables.get(i) + "'");
+            }
+        }
+        evaluateBatch(slotColumns, output);
+    }
+
+    /**
+     * Evaluates the expression for every row of the given variable columns.
+     * <p>
+     * The interpreter runs each opcode over a block of rows at once, so the
+     * dispatch happens once per block instead of once per row and the
+     * arithmetic turns into plain loops over arrays the JIT can vectorize.
+     *
+     * @param columns values of the variables in the order of {@link #variables()},
+     *                each column must hold at least {@code output.length} rows
+     * @param output  receives one result per row
+     */
+    public void evaluateBatch(final double[][] columns, final double[] output) {
+        if (columns.length < variables.size()) {
+            throw new UnboundVariableException("Error: expected " + variables.size() + " variable columns");
+        }
+        final int rows = output.length;
+        for (int i = 0; i < variables.size(); i++) {
+            if (columns[i].length < rows) {
+                throw new UnboundVariableException("Error: not enough values for variable '" + variables.get(i) + "'");
+            }
+        }
+        if (function != null) {
+            final var slots = new double[variables.size()];
+            for (int row = 0; row < rows; row++) {
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = columns[i][row];
+                }
+                output[row] = function.evaluate(slots);
+            }
+            return;
+        }
+        final var stack = new double[stackSize][Math.min(rows, BATCH_BLOCK_SIZE)];
+        for (int from = 0; from < rows; from += BATCH_BLOCK_SIZE) {
+            final int length = Math.min(BATCH_BLOCK_SIZE, rows - from);
+            evaluateBlock(columns, from, length, stack);
+            System.arraycopy(stack[0], 0, output, from, length);
+        }
+    }
+
+    private void evaluateBlock(final double[][] columns, final int from, final int length, final double[][] stack) {
+        int top = -1;
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (opcodes[i]) {
+                case Opcodes.CONSTANT -> Arrays.fill(stack[++top], 0, length, constants[operands[i]]);
+                case Opcodes.VARIABLE -> System.arraycopy(columns[operands[i]], from, stack[++top], 0, length);
+                case Opcodes.ADD -> {
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        a[j] += b[j];
+                    }
+                }
+                case Opcodes.SUBTRACT -> {
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        a[j] -= b[j];
+                    }
+                }
+                case Opcodes.MULTIPLY -> {
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        a[j] *= b[j];
+                    }
+                }
+                case Opcodes.DIVIDE -> {
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        if (b[j] == 0) {
+                            throw new ArithmeticException("Error: division by zero");
+                        }
+                    }
+                    for (int j = 0; j < length; j++) {
+                        a[j] /= b[j];
+                    }
+                }
+                case Opcodes.NEGATE -> {
+                    final double[] a = stack[top];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = -a[j];
+                    }
+                }
+                case Opcodes.POWER -> {
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = Math.pow(a[j], b[j]);
+                    }
+                }
+                case Opcodes.MAX -> {
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = Math.max(a[j], b[j]);
+                    }
+                }
+                case Opcodes.MIN -> {
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = Math.min(a[j], b[j]);
+                    }
+                }
+                case Opcodes.SIN -> {
+                    final double[] a = stack[top];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = Math.sin(a[j]);
+                    }
+                }
+                case Opcodes.COS -> {
+                    final double[] a = stack[top];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = Math.cos(a[j]);
+                    }
+                }
+                case Opcodes.SQRT -> {
+                    final double[] a = stack[top];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = Builtins.sqrt(a[j]);
+                    }
+                }
+                case Opcodes.CALL_UNARY -> {
+                    final var operator = functions[operands[i]].unary();
+                    final double[] a = stack[top];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = operator.applyAsDouble(a[j]);
+                    }
+                }
+                case Opcodes.CALL_BINARY -> {
+                    final var operator = functions[operands[i]].binary();
+                    final double[] a = stack[--top];
+                    final double[] b = stack[top + 1];
+                    for (int j = 0; j < length; j++) {
+                        a[j] = operator.applyAsDouble(a[j], b[j]);
+                    }
+                }
+                case Opcodes.CALL_NARY -> {
+                    final var operation = functions[operands[i]];
+                    top -= operation.arity() - 1;
+                    final var args = new double[operation.arity()];
+                    final double[] a = stack[top];
+                    for (int j = 0; j < length; j++) {
+                        for (int k = 0; k < args.length; k++) {
+                            args[k] = stack[top + k][j];
+                        }
+                        a[j] = operation.nary().applyAsDouble(args, 0);
+                    }
+                }
+                case Opcodes.STORE -> System.arraycopy(stack[top], 0, stack[maxStackDepth + operands[i]], 0, length);
+                case Opcodes.LOAD -> System.arraycopy(stack[maxStackDepth + operands[i]], 0, stack[++top], 0, length);
+                default -> throw new IllegalStateException("Unknown opcode " + opcodes[i]);
+            }
+        }
+    }
+
+    private static void scale(final double[] stack, final int from, final int length, final double factor) {
+        for (int j = from; j < from + length; j++) {
+            stack[j] *= factor;
+        }
+    }
+
+    /**
+     * Passes the arguments to the function in a scratch array, so that it cannot see or change the stack.
+     */
+    private static double callNary(final Operation operation, final double[] stack, final int from) {
+        final var pool = STACKS.get();
+        final var args = pool.acquire(operation.arity());
+        try {
+            System.arraycopy(stack, from, args, 0, operation.arity());
+            return operation.nary().applyAsDouble(args, 0);
+        } finally {
+            pool.release();
+        }
+    }
+
+    private void checkSlots(final double[] slots) {
+        if (slots.length < variables.size()) {
+            throw new UnboundVariableException("Error: expected " + variables.size() + " variable values");
+        }
+    }
+
+    /**
+     * Stacks of a thread, one per nesting level, so that a function called by an expression
+     * can evaluate another expression without overwriting the stack of its caller.
+     */
+    private static final class StackPool {
+
+        private double[][] stacks = new double[4][];
+        private int depth = 0;
+
+        double[] acquire(final int size) {
+            if (depth == stacks.length) {
+                stacks = Arrays.copyOf(stacks, depth * 2);
+            }
+            var stack = stacks[depth];
+            if (stack == null || stack.length < size) {
+                stack = new double[Math.max(size, stack == null ? INITIAL_STACK_SIZE : stack.length * 2)];
+                stacks[depth] = stack;
+            }
+            depth++;
+            return stack;
+        }
+
+        void release() {
+            depth--;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package ru.mehoil.compiler;
+
+import ru.mehoil.data.Token;
+import ru.mehoil.data.TokenType;
+import ru.mehoil.operators.OperatorRegistry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Compiles an expression parsed by {@link ru.mehoil.parsers.ShuntingYardParser}
+ * into a reusable {@link CompiledExpression}. Operators and functions are resolved
+ * through an {@link OperatorRegistry} once, here.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public class ExpressionCompiler {
+
+    public static CompiledExpression compile(final List<Token> parsedSYA) {
+        return compile(parsedSYA, Backend.INTERPRETER);
+    }
+
+    public static CompiledExpression compile(final List<Token> parsedSYA, final Backend backend) {
+        return compile(parsedSYA, backend, OperatorRegistry.defaultRegistry());
+    }
+
+    public static CompiledExpression compile(
+            final List<Token> parsedSYA,
+            final Backend backend,
+            final OperatorRegistry registry
+    ) {
+        return compile(parsedSYA, backend, registry, true);
+    }
+
+    static CompiledExpression compile(final List<Token> parsedSYA, final Backend backend, final boolean optimize) {
+        return compile(parsedSYA, backend, OperatorRegistry.defaultRegistry(), optimize);
+    }
+
+    private static CompiledExpression compile(
+            final List<Token> parsedSYA,
+            final Backend backend,
+            final OperatorRegistry registry,
+            final boolean optimize
+    ) {
+        final var program = new ArrayList<Instruction>(parsedSYA.size());
+        final var slots = new LinkedHashMap<String, Integer>();
+        int depth = 0;
+        for (final var token : parsedSYA) {
+            switch (token.type()) {
+                case NUMBER -> {
+                    program.add(new Instruction.Constant(Double.parseDouble(token.value())));
+                    depth++;
+                }
+                case VARIABLE -> {
+                    final int slot = slots.computeIfAbsent(token.value(), name -> slots.size());
+                    program.add(new Instruction.Variable(slot));
+                    depth++;
+                }
+                case OPERATOR, UNARY_OPERATOR -> {
+                    final var operation = resolveOperator(token, registry);
+                    if (depth < operation.arity()) {
+                        throw new IllegalArgumentException("Error: not enough operands for the operator");
+                    }
+                    program.add(new Instruction.Apply(operation));
+                    depth -= operation.arity() - 1;
+                }
+                case FUNCTION -> {
+                    final var function = registry.function(token.value());
+                    if (function == null) {
+                        throw new IllegalArgumentException("Error: unknown function '" + token.value() + "'");
+                    }
+                    final var operation = Operation.of(function);
+                    if (depth < operation.arity()) {
+                        throw new IllegalArgumentException("Error: not enough arguments for the function");
+                    }
+                    program.add(new Instruction.Apply(operation));
+                    depth -= operation.arity() - 1;
+                }
+                default -> throw new IllegalArgumentException("Error: unexpected token '" + token.value() + "'");
+            }
+        }
+        if (depth != 1) {
+            throw new IllegalArgumentException("Error: operands count mismatch");
+        }
+        final var variables = List.copyOf(slots.keySet());
+        if (!optimize) {
+            return assemble(variables, program, OptimizationReport.none(program.size()), backend);
+        }
+        final var optimized = ExpressionOptimizer.optimize(program);
+        return assemble(variables, optimized.program(), optimized.report(), backend);
+    }
+
+    private static Operation resolveOperator(final Token token, final OperatorRegistry registry) {
+        if (token.type() == TokenType.UNARY_OPERATOR) {
+            final var operator = registry.prefixOperator(token.value());
+            if (operator == null) {
+                throw new IllegalArgumentException("Error: unknown unary operator '" + token.value() + "'");
+            }
+            return Operation.of(operator);
+        }
+        final var operator = registry.infixOperator(token.value());
+        if (operator == null) {
+            throw new IllegalArgumentException("Error: unknown operator '" + token.value() + "'");
+        }
+        return Operation.of(operator);
+    }
+
+    /**
+     * Lowers the instructions into opcode arrays and computes the maximum stack depth
+     * and the number of registers, so that the evaluation neither allocates nor dispatches on objects.
+     */
+    private static CompiledExpression assemble(
+            final List<String> variables,
+            final List<Instruction> program,
+            final OptimizationReport report,
+            final Backend backend
+    ) {
+        final var opcodes = new int[program.size()];
+        final var operands = new int[program.size()];
+        final var constants = new ArrayList<Double>();
+        final var functions = new ArrayList<Operation>();
+        int depth = 0;
+        int maxDepth = 0;
+        int registers = 0;
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (program.get(i)) {
+                case Instruction.Constant constant -> {
+                    opcodes[i] = Opcodes.CONSTANT;
+                    operands[i] = constants.size();
+                    constants.add(constant.value());
+                    depth++;
+                }
+                case Instruction.Variable variable -> {
+                    opcodes[i] = Opcodes.VARIABLE;
+                    operands[i] = variable.slot();
+                    depth++;
+                }
+                case Instruction.Apply apply -> {
+                    final var operation = apply.operation();
+                    opcodes[i] = operation.opcode();
+                    if (!operation.isBuiltin()) {
+                        operands[i] = functions.size();
+                        functions.add(operation);
+                    }
+                    depth -= operation.arity() - 1;
+                }
+                case Instruction.Store store -> {
+                    opcodes[i] = Opcodes.STORE;
+                    operands[i] = store.register();
+                    registers = Math.max(registers, store.register() + 1);
+                }
+                case Instruction.Load load -> {
+                    opcodes[i] = Opcodes.LOAD;
+                    operands[i] = load.register();
+                    depth++;
+                }
+            }
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        final var constantPool = constants.stream().mapToDouble(Double::doubleValue).toArray();
+        final var functionTable = functions.toArray(Operation[]::new);
+        final var function = backend == Backend.BYTECODE
+                ? generate(opcodes, operands, constantPool, functionTable)
+                : null;
+        return new CompiledExpression(
+                variables, opcodes, operands, constantPool, functionTable, maxDepth, registers, report, function
+        );
+    }
+
+    /**
+     * @return generated function or {@code null} if the interpreter has to be used instead
+     */
+    private static ExpressionFunction generate(
+            final int[] opcodes,
+            final int[] operands,
+            final double[] constants,
+            final Operation[] functions
+    ) {
+        try {
+            return BytecodeGenerator.generate(opcodes, operands, constants, functions);
+        } catch (final RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.mehoil.compiler;
+
+/**
+ * Expression evaluated over variable slots.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+@FunctionalInterface
+public interface ExpressionFunction {
+
+    /**
+     * @param slots values of the variables in slot order
+     * @return evaluation result
+     */
+    double evaluate(double[] slots);
+}
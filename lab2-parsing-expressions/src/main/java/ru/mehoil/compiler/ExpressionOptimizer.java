@@ -0,0 +1,204 @@
+package ru.mehoil.compiler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Simplifies a program before it is assembled:
+ * <ul>
+ *     <li>folds operations whose operands are all constants, e.g. {@code 2 * 3.14159 * r}
+ *     becomes {@code 6.28318 * r};</li>
+ *     <li>eliminates identities: {@code x * 1}, {@code 1 * x}, {@code x / 1}, {@code x - 0}
+ *     and {@code x ^ 1}; {@code x + 0} is kept, because it turns {@code -0.0} into {@code 0.0};</li>
+ *     <li>computes repeated subexpressions once, keeping their value in a register.</li>
+ * </ul>
+ * Operations that would fail, like division by zero, are left for the evaluation to report.
+ * Only builtin operations are folded or shared: other implementations are not known to be pure,
+ * so they are called every time they appear.
+ * Operands are never reordered, since floating point arithmetic is not associative.
+ * <p>
+ * The program is numbered bottom-up, every distinct value getting a single number,
+ * and then emitted back from the root. Both passes are iterative, so arbitrarily
+ * long expressions cannot overflow the call stack.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+final class ExpressionOptimizer {
+
+    private static final int NONE = -1;
+
+    private final List<Value> values = new ArrayList<>();
+    private final HashMap<Value, Integer> numbers = new HashMap<>();
+    private int folded;
+    private int calls;
+    private int identities;
+
+    private ExpressionOptimizer() {
+    }
+
+    record Result(List<Instruction> program, OptimizationReport report) {
+    }
+
+    static Result optimize(final List<Instruction> program) {
+        final var optimizer = new ExpressionOptimizer();
+        final int root = optimizer.number(program);
+        return optimizer.emit(root, program.size());
+    }
+
+    /**
+     * Distinct value of the program. Operands refer to other values by number.
+     * Calls of non-builtin operations get a distinct {@code call} number, so they are never shared.
+     */
+    private record Value(int opcode, long constant, Operation operation, List<Integer> operands, int call) {
+
+        boolean isConstant() {
+            return opcode == Opcodes.CONSTANT;
+        }
+
+        boolean isLeaf() {
+            return opcode == Opcodes.CONSTANT || opcode == Opcodes.VARIABLE;
+        }
+
+        double constantValue() {
+            return Double.longBitsToDouble(constant);
+        }
+    }
+
+    private int number(final List<Instruction> program) {
+        final var stack = new ArrayDeque<Integer>();
+        for (final var instruction : program) {
+            switch (instruction) {
+                case Instruction.Constant constant -> stack.push(constant(constant.value()));
+                case Instruction.Variable variable ->
+                        stack.push(intern(new Value(Opcodes.VARIABLE, variable.slot(), null, List.of(), NONE)));
+                case Instruction.Apply apply -> {
+                    final var operands = new Integer[apply.operation().arity()];
+                    for (int i = operands.length - 1; i >= 0; i--) {
+                        operands[i] = stack.pop();
+                    }
+                    stack.push(apply(apply.operation(), List.of(operands)));
+                }
+                case Instruction.Store store -> throw new IllegalStateException("Program is already optimized");
+                case Instruction.Load load -> throw new IllegalStateException("Program is already optimized");
+            }
+        }
+        return stack.pop();
+    }
+
+    private int apply(final Operation operation, final List<Integer> operands) {
+        if (!operation.isBuiltin()) {
+            return intern(new Value(operation.opcode(), 0, operation, operands, calls++));
+        }
+        if (operands.stream().allMatch(operand -> values.get(operand).isConstant())) {
+            final var args = new double[operands.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = values.get(operands.get(i)).constantValue();
+            }
+            try {
+                final double result = operation.apply(args);
+                folded++;
+                return constant(result);
+            } catch (final ArithmeticException e) {
+                // left for the evaluation to report
+            }
+        } else {
+            final int identity = identity(operation, operands);
+            if (identity != NONE) {
+                identities++;
+                return identity;
+            }
+        }
+        return intern(new Value(operation.opcode(), 0, operation, operands, NONE));
+    }
+
+    /**
+     * @return operand the operation reduces to or {@link #NONE}
+     */
+    private int identity(final Operation operation, final List<Integer> operands) {
+        if (operation.arity() != 2) {
+            return NONE;
+        }
+        final int left = operands.get(0);
+        final int right = operands.get(1);
+        final var a = values.get(left);
+        final var b = values.get(right);
+        return switch (operation.opcode()) {
+            case Opcodes.SUBTRACT -> isConstant(b, 0) ? left : NONE;
+            case Opcodes.MULTIPLY -> isConstant(b, 1) ? left : isConstant(a, 1) ? right : NONE;
+            case Opcodes.DIVIDE, Opcodes.POWER -> isConstant(b, 1) ? left : NONE;
+            default -> NONE;
+        };
+    }
+
+    private int constant(final double value) {
+        return intern(new Value(Opcodes.CONSTANT, Double.doubleToLongBits(value), null, List.of(), NONE));
+    }
+
+    private int intern(final Value value) {
+        return numbers.computeIfAbsent(value, v -> {
+            values.add(v);
+            return values.size() - 1;
+        });
+    }
+
+    private static boolean isConstant(final Value value, final double constant) {
+        // -0.0 does not count as 0: x - -0.0 turns -0.0 into 0.0
+        return value.isConstant() && Double.compare(value.constantValue(), constant) == 0;
+    }
+
+    private Result emit(final int root, final int originalSize) {
+        final var uses = new int[values.size()];
+        uses[root] = 1;
+        for (int i = root; i >= 0; i--) {
+            if (uses[i] > 0 && !values.get(i).isLeaf()) {
+                for (final int operand : values.get(i).operands()) {
+                    uses[operand]++;
+                }
+            }
+        }
+
+        final var program = new ArrayList<Instruction>();
+        final var registers = new int[values.size()];
+        Arrays.fill(registers, NONE);
+        int registerCount = 0;
+        int shared = 0;
+
+        // each entry is a value number, negated once its operands have been emitted
+        final var stack = new ArrayDeque<Integer>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final int entry = stack.pop();
+            final int number = entry < 0 ? ~entry : entry;
+            final var value = values.get(number);
+            if (entry >= 0 && registers[number] != NONE) {
+                program.add(new Instruction.Load(registers[number]));
+                continue;
+            }
+            if (value.isLeaf()) {
+                program.add(value.isConstant()
+                        ? new Instruction.Constant(value.constantValue())
+                        : new Instruction.Variable((int) value.constant()));
+                continue;
+            }
+            if (entry >= 0) {
+                stack.push(~number);
+                for (int i = value.operands().size() - 1; i >= 0; i--) {
+                    stack.push(value.operands().get(i));
+                }
+                continue;
+            }
+            program.add(new Instruction.Apply(value.operation()));
+            if (uses[number] > 1) {
+                registers[number] = registerCount++;
+                program.add(new Instruction.Store(registers[number]));
+                shared++;
+            }
+        }
+        final var report = new OptimizationReport(originalSize, program.size(), folded, identities, shared);
+        return new Result(program, report);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.mehoil.compiler;
+
+/**
+ * Single step of a {@link CompiledExpression} program. Unlike a {@link ru.mehoil.data.Token}
+ * it carries no strings: constants are already parsed, variables are bound to slots
+ * and operators are resolved.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+sealed interface Instruction {
+
+    record Constant(double value) implements Instruction {
+    }
+
+    record Variable(int slot) implements Instruction {
+    }
+
+    /**
+     * Replaces as many stack values as the operation takes with its result.
+     */
+    record Apply(Operation operation) implements Instruction {
+    }
+
+    /**
+     * Copies the top of the stack into a register, leaving the stack unchanged.
+     */
+    record Store(int register) implements Instruction {
+    }
+
+    /**
+     * Pushes the value of a register.
+     */
+    record Load(int register) implements Instruction {
+    }
+}
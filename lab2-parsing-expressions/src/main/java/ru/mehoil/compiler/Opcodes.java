@@ -0,0 +1,33 @@
+package ru.mehoil.compiler;
+
+/**
+ * Operation codes of a {@link CompiledExpression} program.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+final class Opcodes {
+
+    static final int CONSTANT = 0;
+    static final int VARIABLE = 1;
+    static final int ADD = 2;
+    static final int SUBTRACT = 3;
+    static final int MULTIPLY = 4;
+    static final int DIVIDE = 5;
+    static final int SIN = 6;
+    static final int COS = 7;
+    static final int SQRT = 8;
+    static final int STORE = 9;
+    static final int LOAD = 10;
+    static final int NEGATE = 11;
+    static final int POWER = 12;
+    static final int MAX = 13;
+    static final int MIN = 14;
+    // Operations not in Builtins, called through their implementation
+    static final int CALL_UNARY = 15;
+    static final int CALL_BINARY = 16;
+    static final int CALL_NARY = 17;
+
+    private Opcodes() {
+    }
+}
@@ -0,0 +1,96 @@
+package ru.mehoil.compiler;
+
+import ru.mehoil.operators.Builtins;
+import ru.mehoil.operators.FunctionDefinition;
+import ru.mehoil.operators.NaryOperator;
+import ru.mehoil.operators.OperatorDefinition;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Operator or function resolved from a token at compile time.
+ * <p>
+ * {@link Builtins} get dedicated opcodes, any other definition is called
+ * through its implementation, which is kept here so that no lookup by name
+ * is left for the evaluation.
+ *
+ * @param name           - operator symbol or function name, used in error messages
+ * @param opcode         - one of {@link Opcodes}
+ * @param arity          - number of operands
+ * @param implementation - {@link DoubleUnaryOperator}, {@link DoubleBinaryOperator} or {@link NaryOperator}
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+record Operation(String name, int opcode, int arity, Object implementation) {
+
+    private static final Map<Object, Integer> BUILTIN_OPCODES = new IdentityHashMap<>();
+
+    static {
+        BUILTIN_OPCODES.put(Builtins.ADD, Opcodes.ADD);
+        BUILTIN_OPCODES.put(Builtins.SUBTRACT, Opcodes.SUBTRACT);
+        BUILTIN_OPCODES.put(Builtins.MULTIPLY, Opcodes.MULTIPLY);
+        BUILTIN_OPCODES.put(Builtins.DIVIDE, Opcodes.DIVIDE);
+        BUILTIN_OPCODES.put(Builtins.NEGATE, Opcodes.NEGATE);
+        BUILTIN_OPCODES.put(Builtins.POWER, Opcodes.POWER);
+        BUILTIN_OPCODES.put(Builtins.SIN, Opcodes.SIN);
+        BUILTIN_OPCODES.put(Builtins.COS, Opcodes.COS);
+        BUILTIN_OPCODES.put(Builtins.SQRT, Opcodes.SQRT);
+        BUILTIN_OPCODES.put(Builtins.MAX, Opcodes.MAX);
+        BUILTIN_OPCODES.put(Builtins.MIN, Opcodes.MIN);
+        BUILTIN_OPCODES.put(Builtins.POW, Opcodes.POWER);
+    }
+
+    static Operation of(final OperatorDefinition.Infix operator) {
+        return new Operation(operator.symbol(), opcode(operator, Opcodes.CALL_BINARY), 2, operator.implementation());
+    }
+
+    static Operation of(final OperatorDefinition.Prefix operator) {
+        return new Operation(operator.symbol(), opcode(operator, Opcodes.CALL_UNARY), 1, operator.implementation());
+    }
+
+    static Operation of(final FunctionDefinition function) {
+        return switch (function) {
+            case FunctionDefinition.Unary unary ->
+                    new Operation(unary.name(), opcode(unary, Opcodes.CALL_UNARY), 1, unary.implementation());
+            case FunctionDefinition.Binary binary ->
+                    new Operation(binary.name(), opcode(binary, Opcodes.CALL_BINARY), 2, binary.implementation());
+            case FunctionDefinition.Nary nary ->
+                    new Operation(nary.name(), Opcodes.CALL_NARY, nary.arity(), nary.implementation());
+        };
+    }
+
+    private static int opcode(final Object definition, final int call) {
+        return BUILTIN_OPCODES.getOrDefault(definition, call);
+    }
+
+    /**
+     * @return whether the operation is one of the {@link Builtins}, which are known to be pure
+     */
+    boolean isBuiltin() {
+        return opcode < Opcodes.CALL_UNARY;
+    }
+
+    DoubleUnaryOperator unary() {
+        return (DoubleUnaryOperator) implementation;
+    }
+
+    DoubleBinaryOperator binary() {
+        return (DoubleBinaryOperator) implementation;
+    }
+
+    NaryOperator nary() {
+        return (NaryOperator) implementation;
+    }
+
+    double apply(final double[] args) {
+        return switch (implementation) {
+            case DoubleUnaryOperator operator -> operator.applyAsDouble(args[0]);
+            case DoubleBinaryOperator operator -> operator.applyAsDouble(args[0], args[1]);
+            case NaryOperator operator -> operator.applyAsDouble(args, 0);
+            default -> throw new IllegalStateException("Unknown implementation of '" + name + "'");
+        };
+    }
+}
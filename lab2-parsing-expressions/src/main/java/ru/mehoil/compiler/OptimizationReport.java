@@ -0,0 +1,31 @@
+package ru.mehoil.compiler;
+
+/**
+ * Describes what {@link ExpressionOptimizer} did to a program.
+ *
+ * @param originalSize          - operations before the optimization
+ * @param optimizedSize         - operations after the optimization
+ * @param foldedOperations      - operations replaced by their constant result
+ * @param eliminatedIdentities  - operations like {@code x * 1} replaced by their operand
+ * @param sharedSubexpressions  - repeated subexpressions computed only once
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public record OptimizationReport(
+        int originalSize,
+        int optimizedSize,
+        int foldedOperations,
+        int eliminatedIdentities,
+        int sharedSubexpressions
+) {
+    static OptimizationReport none(final int size) {
+        return new OptimizationReport(size, size, 0, 0, 0);
+    }
+
+    /**
+     * @return number of operations removed from the program
+     */
+    public int removedOperations() {
+        return originalSize - optimizedSize;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.mehoil.compiler;
+
+/**
+ * Thrown when a variable of an expression has no value to be evaluated with.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public class UnboundVariableException extends IllegalArgumentException {
+
+    public UnboundVariableException(final String message) {
+        super(message);
+    }
+}
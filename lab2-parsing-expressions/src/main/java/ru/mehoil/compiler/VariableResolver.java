@@ -0,0 +1,30 @@
+package ru.mehoil.compiler;
+
+import java.util.Map;
+
+/**
+ * Supplies values of expression variables by name.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+@FunctionalInterface
+public interface VariableResolver {
+
+    /**
+     * @param name variable name
+     * @return variable value
+     * @throws UnboundVariableException if the variable has no value
+     */
+    double resolve(String name);
+
+    static VariableResolver of(final Map<String, Double> variableValues) {
+        return name -> {
+            final var value = variableValues.get(name);
+            if (value == null) {
+                throw new UnboundVariableException("Error: no value for variable '" + name + "'");
+            }
+            return value;
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package ru.mehoil.data;
+
+/**
+ * Represents a kind of {@link EvaluationResult.Failure}.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public enum ErrorType {
+    /**
+     * The expression is malformed.
+     */
+    SYNTAX,
+    /**
+     * A variable has no value.
+     */
+    UNBOUND_VARIABLE,
+    /**
+     * An operation is undefined for its operands, e.g. division by zero.
+     */
+    ARITHMETIC,
+    /**
+     * A variable value could not be obtained.
+     */
+    INVALID_VALUE
+}
@@ -0,0 +1,29 @@
+package ru.mehoil.data;
+
+import java.util.Objects;
+
+/**
+ * Represents an outcome of an expression evaluation.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public sealed interface EvaluationResult {
+
+    /**
+     * @param value - evaluated value
+     */
+    record Value(double value) implements EvaluationResult {
+    }
+
+    /**
+     * @param type    - kind of the error
+     * @param message - human-readable description
+     */
+    record Failure(ErrorType type, String message) implements EvaluationResult {
+        public Failure {
+            Objects.requireNonNull(type);
+            Objects.requireNonNull(message);
+        }
+    }
+}
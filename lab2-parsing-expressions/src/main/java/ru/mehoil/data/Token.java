@@ -5,17 +5,25 @@ import java.util.Objects;
 /**
  * Represents a parsed token within a string expression.
  *
- * @param type  - type of the token
- * @param value - token value
+ * @param type     - type of the token
+ * @param value    - token value
+ * @param position - offset of the token in the source expression, or {@code -1} if unknown
  * @author Mikhail Dorokhov
  * @since 0.0.1
  */
 public record Token(
         TokenType type,
-        String value
+        String value,
+        int position
 ) {
+    public static final int UNKNOWN_POSITION = -1;
+
     public Token {
         Objects.requireNonNull(type);
         Objects.requireNonNull(value);
     }
+
+    public Token(final TokenType type, final String value) {
+        this(type, value, UNKNOWN_POSITION);
+    }
 }
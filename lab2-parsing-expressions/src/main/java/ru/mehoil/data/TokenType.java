@@ -7,5 +7,5 @@ package ru.mehoil.data;
  * @since 0.0.1
  */
 public enum TokenType {
-    NUMBER, OPERATOR, LEFT_PAREN, RIGHT_PAREN, FUNCTION, VARIABLE
+    NUMBER, OPERATOR, UNARY_OPERATOR, LEFT_PAREN, RIGHT_PAREN, COMMA, FUNCTION, VARIABLE
 }
@@ -0,0 +1,18 @@
+package ru.mehoil.operators;
+
+/**
+ * Represents the order in which infix operators of the same precedence are grouped.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public enum Associativity {
+    /**
+     * {@code a - b - c} is {@code (a - b) - c}.
+     */
+    LEFT,
+    /**
+     * {@code a ^ b ^ c} is {@code a ^ (b ^ c)}.
+     */
+    RIGHT
+}
@@ -0,0 +1,48 @@
+package ru.mehoil.operators;
+
+/**
+ * Operators and functions every {@link OperatorRegistry} starts with.
+ * The compiler recognizes these exact instances and evaluates them without a call.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public final class Builtins {
+
+    public static final OperatorDefinition.Infix ADD =
+            new OperatorDefinition.Infix("+", 1, Associativity.LEFT, (a, b) -> a + b);
+    public static final OperatorDefinition.Infix SUBTRACT =
+            new OperatorDefinition.Infix("-", 1, Associativity.LEFT, (a, b) -> a - b);
+    public static final OperatorDefinition.Infix MULTIPLY =
+            new OperatorDefinition.Infix("*", 2, Associativity.LEFT, (a, b) -> a * b);
+    public static final OperatorDefinition.Infix DIVIDE =
+            new OperatorDefinition.Infix("/", 2, Associativity.LEFT, Builtins::divide);
+    public static final OperatorDefinition.Prefix NEGATE =
+            new OperatorDefinition.Prefix("-", 3, a -> -a);
+    public static final OperatorDefinition.Infix POWER =
+            new OperatorDefinition.Infix("^", 4, Associativity.RIGHT, Math::pow);
+
+    public static final FunctionDefinition.Unary SIN = new FunctionDefinition.Unary("sin", Math::sin);
+    public static final FunctionDefinition.Unary COS = new FunctionDefinition.Unary("cos", Math::cos);
+    public static final FunctionDefinition.Unary SQRT = new FunctionDefinition.Unary("sqrt", Builtins::sqrt);
+    public static final FunctionDefinition.Binary MAX = new FunctionDefinition.Binary("max", Math::max);
+    public static final FunctionDefinition.Binary MIN = new FunctionDefinition.Binary("min", Math::min);
+    public static final FunctionDefinition.Binary POW = new FunctionDefinition.Binary("pow", Math::pow);
+
+    private Builtins() {
+    }
+
+    public static double divide(final double a, final double b) {
+        if (b == 0) {
+            throw new ArithmeticException("Error: division by zero");
+        }
+        return a / b;
+    }
+
+    public static double sqrt(final double arg) {
+        if (arg < 0) {
+            throw new ArithmeticException("Error: negative value under sqrt");
+        }
+        return Math.sqrt(arg);
+    }
+}
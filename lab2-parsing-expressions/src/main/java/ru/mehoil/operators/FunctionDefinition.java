@@ -0,0 +1,65 @@
+package ru.mehoil.operators;
+
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Represents a named function that can be called in an expression, e.g. {@code max(a, b)}.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public sealed interface FunctionDefinition {
+
+    String name();
+
+    int arity();
+
+    /**
+     * @param name           - function name
+     * @param implementation - function body
+     */
+    record Unary(String name, DoubleUnaryOperator implementation) implements FunctionDefinition {
+        public Unary {
+            OperatorRegistry.validateName(name);
+            Objects.requireNonNull(implementation);
+        }
+
+        @Override
+        public int arity() {
+            return 1;
+        }
+    }
+
+    /**
+     * @param name           - function name
+     * @param implementation - function body
+     */
+    record Binary(String name, DoubleBinaryOperator implementation) implements FunctionDefinition {
+        public Binary {
+            OperatorRegistry.validateName(name);
+            Objects.requireNonNull(implementation);
+        }
+
+        @Override
+        public int arity() {
+            return 2;
+        }
+    }
+
+    /**
+     * @param name           - function name
+     * @param arity          - number of arguments, at least one
+     * @param implementation - function body
+     */
+    record Nary(String name, int arity, NaryOperator implementation) implements FunctionDefinition {
+        public Nary {
+            OperatorRegistry.validateName(name);
+            Objects.requireNonNull(implementation);
+            if (arity < 1) {
+                throw new IllegalArgumentException("Function arity must be positive");
+            }
+        }
+    }
+}
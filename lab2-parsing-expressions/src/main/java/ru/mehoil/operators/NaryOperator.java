@@ -0,0 +1,21 @@
+package ru.mehoil.operators;
+
+/**
+ * Implementation of a function taking more than two arguments.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+@FunctionalInterface
+public interface NaryOperator {
+
+    /**
+     * Arguments are passed in a scratch array that is reused after the call returns,
+     * so it must not be kept.
+     *
+     * @param args array holding the arguments
+     * @param from index of the first argument, the others follow it
+     * @return function result
+     */
+    double applyAsDouble(double[] args, int from);
+}
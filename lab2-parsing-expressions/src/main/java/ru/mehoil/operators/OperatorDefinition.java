@@ -0,0 +1,54 @@
+package ru.mehoil.operators;
+
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Represents an operator that can be used in an expression.
+ * An operator with a higher precedence binds its operands tighter.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public sealed interface OperatorDefinition {
+
+    String symbol();
+
+    int precedence();
+
+    /**
+     * Operator written before its only operand, e.g. unary minus.
+     *
+     * @param symbol         - operator symbol
+     * @param precedence     - operator precedence
+     * @param implementation - operator body
+     */
+    record Prefix(String symbol, int precedence, DoubleUnaryOperator implementation) implements OperatorDefinition {
+        public Prefix {
+            OperatorRegistry.validateSymbol(symbol);
+            Objects.requireNonNull(implementation);
+        }
+    }
+
+    /**
+     * Operator written between its two operands.
+     *
+     * @param symbol         - operator symbol
+     * @param precedence     - operator precedence
+     * @param associativity  - grouping of operators with the same precedence
+     * @param implementation - operator body
+     */
+    record Infix(
+            String symbol,
+            int precedence,
+            Associativity associativity,
+            DoubleBinaryOperator implementation
+    ) implements OperatorDefinition {
+        public Infix {
+            OperatorRegistry.validateSymbol(symbol);
+            Objects.requireNonNull(associativity);
+            Objects.requireNonNull(implementation);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.mehoil.operators;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set of operators and functions known to the parser.
+ * <p>
+ * Definitions are looked up by name only while an expression is parsed and compiled,
+ * the compiled expression calls their implementations directly. A new registry contains
+ * the {@link Builtins}, further definitions can be registered at any time and replace
+ * earlier ones with the same name. The registry is thread-safe.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public final class OperatorRegistry {
+
+    private static final OperatorRegistry DEFAULT = new OperatorRegistry();
+
+    private final Map<String, FunctionDefinition> functions = new ConcurrentHashMap<>();
+    private final Map<String, OperatorDefinition.Prefix> prefixOperators = new ConcurrentHashMap<>();
+    private final Map<String, OperatorDefinition.Infix> infixOperators = new ConcurrentHashMap<>();
+    private volatile int maxSymbolLength;
+    private volatile int version;
+
+    public OperatorRegistry() {
+        List.of(Builtins.ADD, Builtins.SUBTRACT, Builtins.MULTIPLY, Builtins.DIVIDE, Builtins.NEGATE, Builtins.POWER)
+                .forEach(this::register);
+        List.of(Builtins.SIN, Builtins.COS, Builtins.SQRT, Builtins.MAX, Builtins.MIN, Builtins.POW)
+                .forEach(this::register);
+    }
+
+    /**
+     * @return registry used when no other is given
+     */
+    public static OperatorRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    public OperatorRegistry register(final FunctionDefinition definition) {
+        functions.put(definition.name(), definition);
+        synchronized (this) {
+            version++;
+        }
+        return this;
+    }
+
+    public OperatorRegistry register(final OperatorDefinition definition) {
+        switch (definition) {
+            case OperatorDefinition.Prefix prefix -> prefixOperators.put(prefix.symbol(), prefix);
+            case OperatorDefinition.Infix infix -> infixOperators.put(infix.symbol(), infix);
+        }
+        synchronized (this) {
+            maxSymbolLength = Math.max(maxSymbolLength, definition.symbol().length());
+            version++;
+        }
+        return this;
+    }
+
+    /**
+     * @return number that changes whenever a definition is registered, so that expressions
+     * compiled earlier can be told apart
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * @return function with the given name or {@code null}
+     */
+    public FunctionDefinition function(final String name) {
+        return functions.get(name);
+    }
+
+    /**
+     * @return prefix operator with the given symbol or {@code null}
+     */
+    public OperatorDefinition.Prefix prefixOperator(final String symbol) {
+        return prefixOperators.get(symbol);
+    }
+
+    /**
+     * @return infix operator with the given symbol or {@code null}
+     */
+    public OperatorDefinition.Infix infixOperator(final String symbol) {
+        return infixOperators.get(symbol);
+    }
+
+    /**
+     * Finds the longest operator symbol the expression has at the given position.
+     *
+     * @param expression expression being tokenized
+     * @param from       position to look at
+     * @param prefix     whether a prefix operator is expected there rather than an infix one
+     * @return registered symbol or {@code null}, an operator of the other kind is returned
+     * if there is no operator of the expected one
+     */
+    public String matchOperator(final String expression, final int from, final boolean prefix) {
+        final var preferred = prefix ? prefixOperators : infixOperators;
+        final var other = prefix ? infixOperators : prefixOperators;
+        String fallback = null;
+        for (int length = Math.min(maxSymbolLength, expression.length() - from); length > 0; length--) {
+            final var candidate = expression.substring(from, from + length);
+            final var definition = preferred.get(candidate);
+            if (definition != null) {
+                return definition.symbol();
+            }
+            final var otherDefinition = other.get(candidate);
+            if (fallback == null && otherDefinition != null) {
+                fallback = otherDefinition.symbol();
+            }
+        }
+        return fallback;
+    }
+
+    static void validateName(final String name) {
+        if (name == null || name.isEmpty() || !Character.isLetter(name.charAt(0))
+                || !name.chars().allMatch(Character::isLetterOrDigit)) {
+            throw new IllegalArgumentException("Invalid function name '" + name + "'");
+        }
+    }
+
+    static void validateSymbol(final String symbol) {
+        if (symbol == null || symbol.isEmpty() || !symbol.chars().allMatch(OperatorRegistry::isSymbolCharacter)) {
+            throw new IllegalArgumentException("Invalid operator symbol '" + symbol + "'");
+        }
+    }
+
+    private static boolean isSymbolCharacter(final int c) {
+        return !Character.isLetterOrDigit(c) && !Character.isWhitespace(c)
+                && c != '(' && c != ')' && c != ',' && c != '.';
+    }
+}
@@ -0,0 +1,160 @@
+package ru.mehoil.parsers;
+
+import ru.mehoil.data.Token;
+import ru.mehoil.data.TokenType;
+import ru.mehoil.operators.OperatorRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a string expression into a list of {@link Token} in a single pass over its characters.
+ * <p>
+ * Whitespaces are insignificant inside numbers and names, so {@code "1 0 0"} is read as
+ * {@code 100}, and between tokens. Operator symbols and function names are taken from an
+ * {@link OperatorRegistry}; a symbol is never split by a whitespace, so {@code "* *"} is not
+ * {@code "**"}. An operator is read as unary where no operand precedes it.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public class ExpressionLexer {
+
+    public static List<Token> tokenize(final String expression) {
+        return tokenize(expression, OperatorRegistry.defaultRegistry());
+    }
+
+    public static List<Token> tokenize(final String expression, final OperatorRegistry registry) {
+        final var tokens = new ArrayList<Token>();
+        final int length = expression.length();
+        int i = skipWhitespaces(expression, 0);
+        while (i < length) {
+            final char c = expression.charAt(i);
+            if (isDigit(c)) {
+                i = readNumber(expression, i, tokens);
+            } else if (isLetter(c)) {
+                i = readName(expression, i, tokens, registry);
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.LEFT_PAREN, "(", i++));
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.RIGHT_PAREN, ")", i++));
+            } else if (c == ',') {
+                tokens.add(new Token(TokenType.COMMA, ",", i++));
+            } else {
+                i = readOperator(expression, i, tokens, registry);
+            }
+            i = skipWhitespaces(expression, i);
+        }
+        return tokens;
+    }
+
+    private static int readNumber(final String expression, final int start, final List<Token> tokens) {
+        int end = readDigits(expression, start);
+        final int point = skipWhitespaces(expression, end);
+        if (point < expression.length() && expression.charAt(point) == '.') {
+            final int fraction = skipWhitespaces(expression, point + 1);
+            if (fraction < expression.length() && isDigit(expression.charAt(fraction))) {
+                end = readDigits(expression, fraction);
+            }
+        }
+        tokens.add(new Token(TokenType.NUMBER, value(expression, start, end), start));
+        return end;
+    }
+
+    private static int readOperator(
+            final String expression,
+            final int start,
+            final List<Token> tokens,
+            final OperatorRegistry registry
+    ) {
+        final boolean prefix = expectsOperand(tokens);
+        final var symbol = registry.matchOperator(expression, start, prefix);
+        if (symbol == null) {
+            throw new IllegalArgumentException(
+                    "Error: unexpected character '" + expression.charAt(start) + "' at position " + start
+            );
+        }
+        final boolean unary = registry.infixOperator(symbol) == null
+                || prefix && registry.prefixOperator(symbol) != null;
+        tokens.add(new Token(unary ? TokenType.UNARY_OPERATOR : TokenType.OPERATOR, symbol, start));
+        return start + symbol.length();
+    }
+
+    /**
+     * @return whether the next token starts an operand rather than follows one
+     */
+    private static boolean expectsOperand(final List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return true;
+        }
+        return switch (tokens.getLast().type()) {
+            case OPERATOR, UNARY_OPERATOR, LEFT_PAREN, COMMA, FUNCTION -> true;
+            case NUMBER, VARIABLE, RIGHT_PAREN -> false;
+        };
+    }
+
+    private static int readName(
+            final String expression,
+            final int start,
+            final List<Token> tokens,
+            final OperatorRegistry registry
+    ) {
+        int end = start + 1;
+        int i = skipWhitespaces(expression, end);
+        while (i < expression.length() && (isLetter(expression.charAt(i)) || isDigit(expression.charAt(i)))) {
+            end = i + 1;
+            i = skipWhitespaces(expression, end);
+        }
+        final var name = value(expression, start, end);
+        final var type = registry.function(name) != null ? TokenType.FUNCTION : TokenType.VARIABLE;
+        tokens.add(new Token(type, name, start));
+        return end;
+    }
+
+    /**
+     * @return end of the digit sequence starting at {@code start}, whitespaces between digits included
+     */
+    private static int readDigits(final String expression, final int start) {
+        int end = start + 1;
+        int i = skipWhitespaces(expression, end);
+        while (i < expression.length() && isDigit(expression.charAt(i))) {
+            end = i + 1;
+            i = skipWhitespaces(expression, end);
+        }
+        return end;
+    }
+
+    /**
+     * @return characters of the range without whitespaces, copied only if there are any
+     */
+    private static String value(final String expression, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (Character.isWhitespace(expression.charAt(i))) {
+                final var sb = new StringBuilder(end - start);
+                for (int j = start; j < end; j++) {
+                    final char c = expression.charAt(j);
+                    if (!Character.isWhitespace(c)) {
+                        sb.append(c);
+                    }
+                }
+                return sb.toString();
+            }
+        }
+        return expression.substring(start, end);
+    }
+
+    private static int skipWhitespaces(final String expression, int i) {
+        while (i < expression.length() && Character.isWhitespace(expression.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -1,10 +1,20 @@
 package ru.mehoil.parsers;
 
+import ru.mehoil.compiler.Backend;
+import ru.mehoil.compiler.CompiledExpression;
+import ru.mehoil.compiler.ExpressionCompiler;
+import ru.mehoil.compiler.UnboundVariableException;
+import ru.mehoil.compiler.VariableResolver;
+import ru.mehoil.data.ErrorType;
+import ru.mehoil.data.EvaluationResult;
 import ru.mehoil.data.Token;
 import ru.mehoil.data.TokenType;
+import ru.mehoil.operators.OperatorRegistry;
 
-import java.util.*;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.function.DoubleSupplier;
 
 /**
  * Parses and solves complex string expressions into a list of {@link Token}
@@ -15,65 +25,123 @@ import java.util.regex.Pattern;
  */
 public class ExpressionParser {
 
-    private static final String EXPRESSION_PATTERN = "\\d+\\.\\d+|\\d+|[a-zA-Z][a-zA-Z0-9]*|[+\\-*/()]";
-    private static final String NUMBER_PATTERN = "\\d+\\.\\d+|\\d+";
-    private static final String VARIABLE_PATTERN = "[a-zA-Z][a-zA-Z0-9]*";
-
-    private static final Set<String> FUNCTIONS = Set.of("sin", "cos", "sqrt");
-
+    /**
+     * Evaluates the expression, asking the user for the value of every variable in the console.
+     * Errors are printed to {@code System.err}.
+     *
+     * @param expression expression to evaluate
+     * @return evaluation result or {@link Double#NaN} if the evaluation failed
+     */
     public static double parse(final String expression) {
-        try {
-            final var tokens = tokenize(expression);
-            if (!areBracketsBalanced(tokens)) {
-                throw new IllegalArgumentException("Error: unbalanced brackets");
+        return switch (evaluate(expression, new ConsoleResolver())) {
+            case EvaluationResult.Value value -> value.value();
+            case EvaluationResult.Failure failure -> {
+                System.err.println(failure.message());
+                yield Double.NaN;
             }
+        };
+    }
 
-            final var variables = new HashSet<String>();
-            tokens.forEach(token -> {
-                if (token.type() == TokenType.VARIABLE) {
-                    variables.add(token.value());
-                }
-            });
-
-            final var variableValues = new HashMap<String, Double>();
-            if (!variables.isEmpty()) {
-                final var scanner = new Scanner(System.in);
-                variables.forEach(variable -> {
-                    System.out.print("Enter the value of '" + variable + "': ");
-                    double value = scanner.nextDouble();
-                    variableValues.put(variable, value);
-                });
-            }
+    /**
+     * Evaluates the expression with the given variable values.
+     *
+     * @param expression     expression to evaluate
+     * @param variableValues values of every variable used in the expression
+     * @return value or typed error
+     */
+    public static EvaluationResult evaluate(final String expression, final Map<String, Double> variableValues) {
+        return evaluate(expression, VariableResolver.of(variableValues));
+    }
 
-            final var parsedSYA = ShuntingYardParser.parseArithmeticalExpression(tokens);
-            return ShuntingYardParser.solveParsedExpression(parsedSYA, variableValues);
-        } catch (final Exception e) {
-            System.err.println(e.getMessage() != null ? e.getMessage() : "Error: invalid value");
-            return Double.NaN;
-        }
+    /**
+     * Evaluates the expression, asking the resolver for the value of every variable once.
+     *
+     * @param expression expression to evaluate
+     * @param resolver   supplies variable values
+     * @return value or typed error
+     */
+    public static EvaluationResult evaluate(final String expression, final VariableResolver resolver) {
+        return capture(() -> compile(expression).evaluate(resolver));
     }
 
-    private static List<Token> tokenize(final String expression) {
-        final var tokens = new ArrayList<Token>();
-        final var pattern = Pattern.compile(EXPRESSION_PATTERN);
-        final var matcher = pattern.matcher(expression.replaceAll("\\s+", ""));
-        while (matcher.find()) {
-            final var token = matcher.group();
-            if (token.matches(NUMBER_PATTERN)) {
-                tokens.add(new Token(TokenType.NUMBER, token));
-            } else if (FUNCTIONS.contains(token)) {
-                tokens.add(new Token(TokenType.FUNCTION, token));
-            } else if (token.matches(VARIABLE_PATTERN)) {
-                tokens.add(new Token(TokenType.VARIABLE, token));
-            } else if (token.equals("(")) {
-                tokens.add(new Token(TokenType.LEFT_PAREN, token));
-            } else if (token.equals(")")) {
-                tokens.add(new Token(TokenType.RIGHT_PAREN, token));
-            } else {
-                tokens.add(new Token(TokenType.OPERATOR, token));
-            }
+    /**
+     * Evaluates the expression with variable values given in the order the variables
+     * first appear in the expression.
+     *
+     * @param expression expression to evaluate
+     * @param slots      variable values
+     * @return value or typed error
+     */
+    public static EvaluationResult evaluate(final String expression, final double... slots) {
+        return capture(() -> compile(expression).evaluate(slots));
+    }
+
+    /**
+     * Evaluates the compiled expression, asking the resolver for the value of every variable once.
+     *
+     * @param compiled expression to evaluate
+     * @param resolver supplies variable values
+     * @return value or typed error
+     */
+    public static EvaluationResult evaluate(final CompiledExpression compiled, final VariableResolver resolver) {
+        return capture(() -> compiled.evaluate(resolver));
+    }
+
+    /**
+     * Evaluates the compiled expression with variable values given by slot.
+     *
+     * @param compiled expression to evaluate
+     * @param slots    values of the variables in the order of {@link CompiledExpression#variables()}
+     * @return value or typed error
+     */
+    public static EvaluationResult evaluate(final CompiledExpression compiled, final double... slots) {
+        return capture(() -> compiled.evaluate(slots));
+    }
+
+    /**
+     * Parses the expression once into a form that can be evaluated many times.
+     *
+     * @param expression expression to compile
+     * @return compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static CompiledExpression compile(final String expression) {
+        return compile(expression, Backend.INTERPRETER);
+    }
+
+    /**
+     * Parses the expression once into a form that can be evaluated many times.
+     *
+     * @param expression expression to compile
+     * @param backend    the way the expression is going to be evaluated
+     * @return compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static CompiledExpression compile(final String expression, final Backend backend) {
+        return compile(expression, backend, OperatorRegistry.defaultRegistry());
+    }
+
+    /**
+     * Parses the expression once into a form that can be evaluated many times.
+     *
+     * @param expression expression to compile
+     * @param backend    the way the expression is going to be evaluated
+     * @param registry   operators and functions the expression may use
+     * @return compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static CompiledExpression compile(
+            final String expression,
+            final Backend backend,
+            final OperatorRegistry registry
+    ) {
+        final var tokens = ExpressionLexer.tokenize(expression, registry);
+        if (!areBracketsBalanced(tokens)) {
+            throw new IllegalArgumentException("Error: unbalanced brackets");
         }
-        return tokens;
+        return ExpressionCompiler.compile(
+                ShuntingYardParser.parseArithmeticalExpression(tokens, registry), backend, registry
+        );
     }
 
     private static boolean areBracketsBalanced(final List<Token> tokens) {
@@ -91,4 +159,38 @@ public class ExpressionParser {
         return balance == 0;
     }
 
-}
\ No newline at end of file
+    private static EvaluationResult capture(final DoubleSupplier evaluation) {
+        try {
+            return new EvaluationResult.Value(evaluation.getAsDouble());
+        } catch (final UnboundVariableException e) {
+            return failure(ErrorType.UNBOUND_VARIABLE, e);
+        } catch (final IllegalArgumentException e) {
+            return failure(ErrorType.SYNTAX, e);
+        } catch (final ArithmeticException e) {
+            return failure(ErrorType.ARITHMETIC, e);
+        } catch (final RuntimeException e) {
+            return failure(ErrorType.INVALID_VALUE, e);
+        }
+    }
+
+    private static EvaluationResult failure(final ErrorType type, final Exception e) {
+        return new EvaluationResult.Failure(type, e.getMessage() != null ? e.getMessage() : "Error: invalid value");
+    }
+
+    /**
+     * Reads variable values from the console, opening it on the first request.
+     */
+    private static class ConsoleResolver implements VariableResolver {
+
+        private Scanner scanner;
+
+        @Override
+        public double resolve(final String name) {
+            if (scanner == null) {
+                scanner = new Scanner(System.in);
+            }
+            System.out.print("Enter the value of '" + name + "': ");
+            return scanner.nextDouble();
+        }
+    }
+}
@@ -2,6 +2,10 @@ package ru.mehoil.parsers;
 
 import ru.mehoil.data.Token;
 import ru.mehoil.data.TokenType;
+import ru.mehoil.operators.Associativity;
+import ru.mehoil.operators.FunctionDefinition;
+import ru.mehoil.operators.OperatorDefinition;
+import ru.mehoil.operators.OperatorRegistry;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -12,42 +16,66 @@ import java.util.Map;
  * Implementation of the <a href="https://en.wikipedia.org/wiki/Shunting_yard_algorithm">
  * Shunting yard algorithm (SYA)
  * </a> that parses given arithmetical expression and solves it.
+ * <p>
+ * Precedence, associativity and arity of operators and functions are taken from an {@link OperatorRegistry}.
  *
  * @author Mikhail Dorokhov
  * @since 0.0.1
  */
 public class ShuntingYardParser {
 
-    private static final int MIN_OPERANDS_IN_STACK = 2;
-    private static final Map<String, Integer> OPERATOR_PRIORITY = Map.of(
-            "+", 1,
-            "-", 1,
-            "*", 2,
-            "/", 2
-    );
-
     public static List<Token> parseArithmeticalExpression(final List<Token> tokens) {
+        return parseArithmeticalExpression(tokens, OperatorRegistry.defaultRegistry());
+    }
+
+    public static List<Token> parseArithmeticalExpression(final List<Token> tokens, final OperatorRegistry registry) {
         final var output = new ArrayList<Token>();
         final var stack = new ArrayDeque<Token>();
+        // Commas seen so far inside each open bracket, and whether it holds any token at all
+        final var arguments = new ArrayDeque<int[]>();
         tokens.forEach(token -> {
+            if (token.type() != TokenType.RIGHT_PAREN && !arguments.isEmpty()) {
+                arguments.peek()[1] = 1;
+            }
             switch (token.type()) {
                 case VARIABLE, NUMBER -> output.add(token);
-                case FUNCTION, LEFT_PAREN -> stack.push(token);
-                case RIGHT_PAREN -> {
+                case FUNCTION, UNARY_OPERATOR -> stack.push(token);
+                case LEFT_PAREN -> {
+                    stack.push(token);
+                    arguments.push(new int[]{0, 0});
+                }
+                case COMMA -> {
                     while (!stack.isEmpty() && stack.peek().type() != TokenType.LEFT_PAREN) {
                         output.add(stack.pop());
                     }
-                    if (stack.isEmpty()) {
-                        throw new IllegalArgumentException("Error: Extra closing bracket");
+                    if (!isFunctionBracket(stack)) {
+                        throw new IllegalArgumentException("Error: comma outside of function arguments");
                     }
+                    arguments.peek()[0]++;
+                }
+                case RIGHT_PAREN -> {
+                    popUntilBracket(stack, output);
                     stack.pop();
+                    final var bracket = arguments.pop();
+                    final int count = bracket[1] == 0 ? 0 : bracket[0] + 1;
                     if (!stack.isEmpty() && stack.peek().type() == TokenType.FUNCTION) {
-                        output.add(stack.pop());
+                        final var function = stack.pop();
+                        final int arity = function(registry, function).arity();
+                        if (count != arity) {
+                            throw new IllegalArgumentException("Error: function '" + function.value()
+                                    + "' takes " + arity + " argument(s), got " + count);
+                        }
+                        output.add(function);
                     }
                 }
                 case OPERATOR -> {
-                    while (!stack.isEmpty() && stack.peek().type() == TokenType.OPERATOR &&
-                            OPERATOR_PRIORITY.get(stack.peek().value()) >= OPERATOR_PRIORITY.get(token.value())) {
+                    final var operator = infix(registry, token);
+                    while (!stack.isEmpty() && isOperator(stack.peek())) {
+                        final int top = precedence(registry, stack.peek());
+                        if (top < operator.precedence() || top == operator.precedence()
+                                && operator.associativity() == Associativity.RIGHT) {
+                            break;
+                        }
                         output.add(stack.pop());
                     }
                     stack.push(token);
@@ -65,45 +93,49 @@ public class ShuntingYardParser {
     }
 
     public static double solveParsedExpression(final List<Token> parsedSYA, final Map<String, Double> variableValues) {
+        return solveParsedExpression(parsedSYA, variableValues, OperatorRegistry.defaultRegistry());
+    }
+
+    public static double solveParsedExpression(
+            final List<Token> parsedSYA,
+            final Map<String, Double> variableValues,
+            final OperatorRegistry registry
+    ) {
         final var stack = new ArrayDeque<Double>();
         parsedSYA.forEach(token -> {
             switch (token.type()) {
                 case NUMBER -> stack.push(Double.parseDouble(token.value()));
                 case VARIABLE -> stack.push(variableValues.get(token.value()));
                 case OPERATOR -> {
-                    if (stack.size() < MIN_OPERANDS_IN_STACK) {
+                    if (stack.size() < 2) {
                         throw new IllegalArgumentException("Error: not enough operands for the operator");
                     }
                     final double b = stack.pop();
                     final double a = stack.pop();
-                    switch (token.value()) {
-                        case "+" -> stack.push(a + b);
-                        case "-" -> stack.push(a - b);
-                        case "*" -> stack.push(a * b);
-                        case "/" -> {
-                            if (b == 0) {
-                                throw new ArithmeticException("Error: division by zero");
-                            }
-                            stack.push(a / b);
-                        }
+                    stack.push(infix(registry, token).implementation().applyAsDouble(a, b));
+                }
+                case UNARY_OPERATOR -> {
+                    if (stack.isEmpty()) {
+                        throw new IllegalArgumentException("Error: not enough operands for the operator");
                     }
+                    stack.push(prefix(registry, token).implementation().applyAsDouble(stack.pop()));
                 }
                 case FUNCTION -> {
-                    if (stack.isEmpty()) {
+                    final var function = function(registry, token);
+                    if (stack.size() < function.arity()) {
                         throw new IllegalArgumentException("Error: not enough arguments for the function");
                     }
-                    final double arg = stack.pop();
-                    switch (token.value()) {
-                        case "sin" -> stack.push(Math.sin(arg));
-                        case "cos" -> stack.push(Math.cos(arg));
-                        case "sqrt" -> {
-                            if (arg < 0) {
-                                throw new ArithmeticException("Error: negative value under sqrt");
-                            }
-                            stack.push(Math.sqrt(arg));
-                        }
+                    final var args = new double[function.arity()];
+                    for (int i = args.length - 1; i >= 0; i--) {
+                        args[i] = stack.pop();
                     }
+                    stack.push(switch (function) {
+                        case FunctionDefinition.Unary unary -> unary.implementation().applyAsDouble(args[0]);
+                        case FunctionDefinition.Binary binary -> binary.implementation().applyAsDouble(args[0], args[1]);
+                        case FunctionDefinition.Nary nary -> nary.implementation().applyAsDouble(args, 0);
+                    });
                 }
+                case LEFT_PAREN, RIGHT_PAREN, COMMA -> throw new IllegalArgumentException("Error: unexpected bracket");
             }
         });
         if (stack.size() != 1) {
@@ -111,4 +143,56 @@ public class ShuntingYardParser {
         }
         return stack.pop();
     }
+
+    private static void popUntilBracket(final ArrayDeque<Token> stack, final List<Token> output) {
+        while (!stack.isEmpty() && stack.peek().type() != TokenType.LEFT_PAREN) {
+            output.add(stack.pop());
+        }
+        if (stack.isEmpty()) {
+            throw new IllegalArgumentException("Error: Extra closing bracket");
+        }
+    }
+
+    /**
+     * @return whether the bracket on top of the stack opens a function call
+     */
+    private static boolean isFunctionBracket(final ArrayDeque<Token> stack) {
+        final var iterator = stack.iterator();
+        return iterator.hasNext() && iterator.next().type() == TokenType.LEFT_PAREN
+                && iterator.hasNext() && iterator.next().type() == TokenType.FUNCTION;
+    }
+
+    private static boolean isOperator(final Token token) {
+        return token.type() == TokenType.OPERATOR || token.type() == TokenType.UNARY_OPERATOR;
+    }
+
+    private static int precedence(final OperatorRegistry registry, final Token token) {
+        return token.type() == TokenType.OPERATOR
+                ? infix(registry, token).precedence()
+                : prefix(registry, token).precedence();
+    }
+
+    private static OperatorDefinition.Infix infix(final OperatorRegistry registry, final Token token) {
+        final var operator = registry.infixOperator(token.value());
+        if (operator == null) {
+            throw new IllegalArgumentException("Error: unknown operator '" + token.value() + "'");
+        }
+        return operator;
+    }
+
+    private static OperatorDefinition.Prefix prefix(final OperatorRegistry registry, final Token token) {
+        final var operator = registry.prefixOperator(token.value());
+        if (operator == null) {
+            throw new IllegalArgumentException("Error: unknown unary operator '" + token.value() + "'");
+        }
+        return operator;
+    }
+
+    private static FunctionDefinition function(final OperatorRegistry registry, final Token token) {
+        final var function = registry.function(token.value());
+        if (function == null) {
+            throw new IllegalArgumentException("Error: unknown function '" + token.value() + "'");
+        }
+        return function;
+    }
 }
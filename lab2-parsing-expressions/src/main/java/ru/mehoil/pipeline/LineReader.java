@@ -0,0 +1,98 @@
+package ru.mehoil.pipeline;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads UTF-8 lines from a file through a single large buffer.
+ * <p>
+ * Lines are split on {@code '\n'} bytes, which never occur inside a multibyte character,
+ * so only complete lines are decoded. A trailing {@code '\r'} is dropped. The buffer grows
+ * only if a single line does not fit into it.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+final class LineReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    private int searchFrom;
+    private boolean endOfFile;
+
+    LineReader(final Path path, final int bufferSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(bufferSize).flip();
+    }
+
+    /**
+     * @return next line without the line terminator or {@code null} at the end of the file
+     */
+    String readLine() throws IOException {
+        while (true) {
+            final byte[] array = buffer.array();
+            for (int i = searchFrom; i < buffer.limit(); i++) {
+                if (array[i] == '\n') {
+                    final var line = decode(buffer.position(), i);
+                    buffer.position(i + 1);
+                    searchFrom = i + 1;
+                    return line;
+                }
+            }
+            searchFrom = buffer.limit();
+            if (endOfFile) {
+                if (!buffer.hasRemaining()) {
+                    return null;
+                }
+                final var line = decode(buffer.position(), buffer.limit());
+                buffer.position(buffer.limit());
+                return line;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * @return up to {@code maxLines} next lines, empty at the end of the file
+     */
+    List<String> readLines(final int maxLines) throws IOException {
+        final var lines = new ArrayList<String>(maxLines);
+        String line;
+        while (lines.size() < maxLines && (line = readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void fill() throws IOException {
+        final int scanned = searchFrom - buffer.position();
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            final var larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        if (channel.read(buffer) < 0) {
+            endOfFile = true;
+        }
+        buffer.flip();
+        searchFrom = scanned;
+    }
+
+    private String decode(final int from, final int to) {
+        final int end = to > from && buffer.array()[to - 1] == '\r' ? to - 1 : to;
+        return new String(buffer.array(), from, end - from, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.mehoil.pipeline;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a file run by {@link StreamingEvaluator}.
+ *
+ * @param lines    - number of evaluated lines, blank lines excluded
+ * @param failures - number of lines that failed
+ * @param elapsed  - wall-clock time of the whole run
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public record PipelineStats(long lines, long failures, Duration elapsed) {
+    /**
+     * @return lines evaluated per second
+     */
+    public double throughput() {
+        final long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : lines * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,302 @@
+package ru.mehoil.pipeline;
+
+import ru.mehoil.compiler.CompiledExpression;
+import ru.mehoil.compiler.UnboundVariableException;
+import ru.mehoil.data.EvaluationResult;
+import ru.mehoil.parsers.ExpressionParser;
+import ru.mehoil.service.EvaluationJob;
+import ru.mehoil.service.EvaluationService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates files far larger than the memory, line by line.
+ * <p>
+ * The input is read through a large buffer and cut into chunks of lines, which are
+ * evaluated in parallel on a {@link ForkJoinPool}. Results are written in input order,
+ * one output line per input line: the value, the error message or nothing for a blank
+ * line. Only a few chunks per thread are in flight at any time, so the memory used
+ * does not depend on the file size.
+ * <p>
+ * Two input formats are supported:
+ * <ul>
+ *     <li>{@link #evaluateExpressions(Path, Path)}: every line is an expression;</li>
+ *     <li>{@link #evaluateRows(String, Path, Path)}: a single expression is evaluated for every
+ *     row of a comma-separated file whose header names the variables.</li>
+ * </ul>
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public class StreamingEvaluator implements AutoCloseable {
+
+    private static final int DEFAULT_CHUNK_LINES = 16_384;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 2;
+    private static final char SEPARATOR = ',';
+
+    private final EvaluationService service;
+    private final ForkJoinPool pool;
+    private final int chunkLines;
+    private final int maxChunksInFlight;
+
+    public StreamingEvaluator(final EvaluationService service) {
+        this(service, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_LINES);
+    }
+
+    public StreamingEvaluator(final EvaluationService service, final int parallelism, final int chunkLines) {
+        if (parallelism < 1 || chunkLines < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        this.service = service;
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkLines = chunkLines;
+        this.maxChunksInFlight = parallelism * CHUNKS_PER_THREAD;
+    }
+
+    /**
+     * Evaluates every line of the input as an expression without variables.
+     *
+     * @param input  file of expressions, one per line
+     * @param output file to write the results to, replaced if it exists
+     * @return number of lines, failures and elapsed time
+     */
+    public PipelineStats evaluateExpressions(final Path input, final Path output) throws IOException {
+        return evaluateExpressions(input, output, Map.of());
+    }
+
+    /**
+     * Evaluates every line of the input as an expression.
+     *
+     * @param input     file of expressions, one per line
+     * @param output    file to write the results to, replaced if it exists
+     * @param variables values of the variables the expressions may use
+     * @return number of lines, failures and elapsed time
+     */
+    public PipelineStats evaluateExpressions(
+            final Path input,
+            final Path output,
+            final Map<String, Double> variables
+    ) throws IOException {
+        try (final var reader = new LineReader(input, BUFFER_SIZE)) {
+            return run(reader, output, lines -> () -> evaluateExpressions(lines, variables));
+        }
+    }
+
+    /**
+     * Evaluates the expression for every row of the input.
+     * The first line of the input names the variables, every following line holds their values,
+     * all separated by commas. Columns not used by the expression are ignored.
+     *
+     * @param expression expression to evaluate
+     * @param input      comma-separated file with a header
+     * @param output     file to write the results to, replaced if it exists
+     * @return number of rows, failures and elapsed time
+     * @throws IllegalArgumentException if the expression is invalid or uses a variable missing in the header
+     */
+    public PipelineStats evaluateRows(final String expression, final Path input, final Path output) throws IOException {
+        final var compiled = service.cache().get(expression);
+        try (final var reader = new LineReader(input, BUFFER_SIZE)) {
+            final var header = reader.readLine();
+            if (header == null && !compiled.variables().isEmpty()) {
+                throw new UnboundVariableException("Error: no header in " + input);
+            }
+            final var columns = header == null ? new int[0] : columnsOf(compiled, split(header));
+            return run(reader, output, rows -> () -> evaluateRows(compiled, columns, rows));
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private PipelineStats run(
+            final LineReader reader,
+            final Path output,
+            final ChunkTask task
+    ) throws IOException {
+        final long startedAt = System.nanoTime();
+        final var inFlight = new ArrayDeque<Future<Chunk>>(maxChunksInFlight);
+        long lines = 0;
+        long failures = 0;
+        try (final var channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            List<String> chunk;
+            while (!(chunk = reader.readLines(chunkLines)).isEmpty()) {
+                if (inFlight.size() == maxChunksInFlight) {
+                    final var done = write(inFlight.poll(), channel);
+                    lines += done.lines();
+                    failures += done.failures();
+                }
+                inFlight.add(pool.submit(task.of(chunk)));
+            }
+            while (!inFlight.isEmpty()) {
+                final var done = write(inFlight.poll(), channel);
+                lines += done.lines();
+                failures += done.failures();
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+        return new PipelineStats(lines, failures, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    private static Chunk write(final Future<Chunk> future, final FileChannel channel) throws IOException {
+        final Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Evaluation was interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("Evaluation failed", e.getCause());
+        }
+        final var buffer = ByteBuffer.wrap(chunk.output());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return chunk;
+    }
+
+    private Chunk evaluateExpressions(final List<String> lines, final Map<String, Double> variables) {
+        final var output = new StringBuilder(lines.size() * 24);
+        int evaluated = 0;
+        int failures = 0;
+        for (final var line : lines) {
+            if (!line.isBlank()) {
+                evaluated++;
+                if (append(output, service.evaluate(new EvaluationJob(line, variables)))) {
+                    failures++;
+                }
+            }
+            output.append('\n');
+        }
+        return new Chunk(output.toString().getBytes(StandardCharsets.UTF_8), evaluated, failures);
+    }
+
+    /**
+     * Parses the rows into variable columns and evaluates them as a batch, falling back
+     * to row by row evaluation only if the batch fails. Rows that cannot be parsed
+     * are evaluated along with the others, but their results are replaced by the error.
+     */
+    private static Chunk evaluateRows(final CompiledExpression compiled, final int[] columns, final List<String> rows) {
+        final int size = rows.size();
+        final var values = new double[columns.length][size];
+        final var errors = new String[size];
+        for (int row = 0; row < size; row++) {
+            final var line = rows.get(row);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                final var fields = split(line);
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i] >= fields.length) {
+                        throw new IllegalArgumentException("Error: expected at least " + (columns[i] + 1) + " values");
+                    }
+                    values[i][row] = Double.parseDouble(fields[columns[i]]);
+                }
+            } catch (final IllegalArgumentException e) {
+                errors[row] = e instanceof NumberFormatException ? "Error: invalid number in '" + line + "'" : e.getMessage();
+            }
+        }
+
+        final var results = new double[size];
+        boolean batched = true;
+        try {
+            compiled.evaluateBatch(values, results);
+        } catch (final RuntimeException e) {
+            batched = false;
+        }
+        final var output = new StringBuilder(size * 24);
+        final var slots = new double[columns.length];
+        int evaluated = 0;
+        int failures = 0;
+        for (int row = 0; row < size; row++) {
+            if (rows.get(row).isBlank()) {
+                output.append('\n');
+                continue;
+            }
+            evaluated++;
+            if (errors[row] != null) {
+                output.append(errors[row]);
+                failures++;
+            } else if (batched) {
+                output.append(results[row]);
+            } else {
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = values[i][row];
+                }
+                if (append(output, ExpressionParser.evaluate(compiled, slots))) {
+                    failures++;
+                }
+            }
+            output.append('\n');
+        }
+        return new Chunk(output.toString().getBytes(StandardCharsets.UTF_8), evaluated, failures);
+    }
+
+    /**
+     * @return whether the result is a failure
+     */
+    private static boolean append(final StringBuilder output, final EvaluationResult result) {
+        return switch (result) {
+            case EvaluationResult.Value value -> {
+                output.append(value.value());
+                yield false;
+            }
+            case EvaluationResult.Failure failure -> {
+                output.append(failure.message());
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * @return header column of every variable of the expression, in slot order
+     */
+    private static int[] columnsOf(final CompiledExpression compiled, final String[] header) {
+        final var names = Arrays.asList(header);
+        final var columns = new int[compiled.variables().size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(compiled.variables().get(i));
+            if (columns[i] < 0) {
+                throw new UnboundVariableException(
+                        "Error: no column for variable '" + compiled.variables().get(i) + "'"
+                );
+            }
+        }
+        return columns;
+    }
+
+    private static String[] split(final String line) {
+        final var fields = line.split(String.valueOf(SEPARATOR), -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].strip();
+        }
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        Callable<Chunk> of(List<String> lines);
+    }
+
+    private record Chunk(byte[] output, int lines, int failures) {
+    }
+}
@@ -0,0 +1,28 @@
+package ru.mehoil.service;
+
+import ru.mehoil.compiler.VariableResolver;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Represents an expression to be evaluated by {@link EvaluationService}.
+ *
+ * @param expression - expression text
+ * @param resolver   - supplies values of the expression variables
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public record EvaluationJob(
+        String expression,
+        VariableResolver resolver
+) {
+    public EvaluationJob {
+        Objects.requireNonNull(expression);
+        Objects.requireNonNull(resolver);
+    }
+
+    public EvaluationJob(final String expression, final Map<String, Double> variableValues) {
+        this(expression, VariableResolver.of(variableValues));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.mehoil.service;
+
+import ru.mehoil.data.EvaluationResult;
+
+import java.util.List;
+
+/**
+ * Represents results of a batch of jobs run by {@link EvaluationService}.
+ *
+ * @param results - one result per job, in the order of the jobs
+ * @param stats   - throughput and latency of the batch
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public record EvaluationReport(List<EvaluationResult> results, EvaluationStats stats) {
+}
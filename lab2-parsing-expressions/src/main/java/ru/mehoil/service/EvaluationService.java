@@ -0,0 +1,115 @@
+package ru.mehoil.service;
+
+import ru.mehoil.cache.ExpressionCache;
+import ru.mehoil.data.ErrorType;
+import ru.mehoil.data.EvaluationResult;
+import ru.mehoil.parsers.ExpressionParser;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Evaluates many expressions in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Compiled expressions are shared between threads through an {@link ExpressionCache},
+ * while every worker thread reuses its own evaluation stack.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public class EvaluationService implements AutoCloseable {
+
+    private static final int DEFAULT_CACHE_ENTRIES = 4_096;
+    private static final long DEFAULT_CACHE_WEIGHT = 1_000_000;
+
+    private final ExpressionCache cache;
+    private final ForkJoinPool pool;
+
+    public EvaluationService() {
+        this(new ExpressionCache(DEFAULT_CACHE_ENTRIES, DEFAULT_CACHE_WEIGHT), Runtime.getRuntime().availableProcessors());
+    }
+
+    public EvaluationService(final ExpressionCache cache, final int parallelism) {
+        this.cache = cache;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Evaluates a single job in the calling thread.
+     *
+     * @param job job to evaluate
+     * @return value or typed error
+     */
+    public EvaluationResult evaluate(final EvaluationJob job) {
+        try {
+            return ExpressionParser.evaluate(cache.get(job.expression()), job.resolver());
+        } catch (final IllegalArgumentException e) {
+            return new EvaluationResult.Failure(ErrorType.SYNTAX, e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates all jobs in parallel.
+     *
+     * @param jobs jobs to evaluate
+     * @return results in the order of the jobs together with throughput and latency
+     */
+    public EvaluationReport evaluateAll(final Stream<EvaluationJob> jobs) {
+        final long startedAt = System.nanoTime();
+        final List<Outcome> outcomes;
+        try {
+            outcomes = pool.submit(() -> jobs.parallel().map(this::evaluateTimed).toList()).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Evaluation was interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Evaluation failed", e.getCause());
+        }
+        final var elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        final var results = outcomes.stream().map(Outcome::result).toList();
+        final var latencies = outcomes.stream().mapToLong(Outcome::latencyNanos).toArray();
+        final int failures = (int) results.stream().filter(EvaluationResult.Failure.class::isInstance).count();
+        Arrays.sort(latencies);
+        final var stats = new EvaluationStats(
+                results.size(),
+                failures,
+                elapsed,
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.90),
+                percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1]
+        );
+        return new EvaluationReport(results, stats);
+    }
+
+    public ExpressionCache cache() {
+        return cache;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Outcome evaluateTimed(final EvaluationJob job) {
+        final long startedAt = System.nanoTime();
+        final var result = evaluate(job);
+        return new Outcome(result, System.nanoTime() - startedAt);
+    }
+
+    private static long percentile(final long[] sorted, final double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private record Outcome(EvaluationResult result, long latencyNanos) {
+    }
+}
@@ -0,0 +1,34 @@
+package ru.mehoil.service;
+
+import java.time.Duration;
+
+/**
+ * Throughput and latency of a batch of jobs run by {@link EvaluationService}.
+ *
+ * @param jobs       - number of evaluated jobs
+ * @param failures   - number of jobs that failed
+ * @param elapsed    - wall-clock time of the whole batch
+ * @param p50Nanos   - median job latency
+ * @param p90Nanos   - 90th percentile of job latency
+ * @param p99Nanos   - 99th percentile of job latency
+ * @param maxNanos   - maximum job latency
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public record EvaluationStats(
+        int jobs,
+        int failures,
+        Duration elapsed,
+        long p50Nanos,
+        long p90Nanos,
+        long p99Nanos,
+        long maxNanos
+) {
+    /**
+     * @return jobs evaluated per second
+     */
+    public double throughput() {
+        final long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : jobs * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,224 @@
+package ru.mehoil.sheet;
+
+import ru.mehoil.compiler.CompiledExpression;
+import ru.mehoil.data.ErrorType;
+import ru.mehoil.data.EvaluationResult;
+import ru.mehoil.parsers.ExpressionParser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spreadsheet-like set of named cells, where a cell is either an input value
+ * or a formula whose variables refer to other cells.
+ * <p>
+ * Cells keep their evaluated values. When a cell changes, only the cells
+ * depending on it, directly or transitively, are re-evaluated, each one once
+ * and after all of its dependencies. References to cells that are not defined
+ * yet evaluate to an {@link ErrorType#UNBOUND_VARIABLE} failure until the cell appears,
+ * cyclic references are rejected.
+ * <p>
+ * The sheet is not thread-safe.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+public class FormulaSheet {
+
+    private final Map<String, Cell> cells = new HashMap<>();
+    private long evaluations;
+
+    /**
+     * Sets the value of an input cell, replacing the formula if the cell had one.
+     *
+     * @param name  cell name
+     * @param value cell value
+     */
+    public void set(final String name, final double value) {
+        setAll(Map.of(name, value));
+    }
+
+    /**
+     * Sets the values of several input cells, re-evaluating every affected formula once.
+     *
+     * @param values cell values by name
+     */
+    public void setAll(final Map<String, Double> values) {
+        final var changed = new ArrayList<Cell>(values.size());
+        values.forEach((name, value) -> {
+            final var cell = cellOf(name);
+            unlink(cell);
+            cell.formula = null;
+            cell.result = new EvaluationResult.Value(value);
+            changed.add(cell);
+        });
+        recompute(changed);
+    }
+
+    /**
+     * Defines a formula cell, replacing the previous value or formula of the cell.
+     *
+     * @param name       cell name
+     * @param expression formula referring to other cells by name
+     * @throws IllegalArgumentException if the formula is invalid or makes a cyclic reference
+     */
+    public void define(final String name, final String expression) {
+        final var formula = ExpressionParser.compile(expression);
+        final var cell = cellOf(name);
+        final var dependencies = new Cell[formula.variables().size()];
+        for (int i = 0; i < dependencies.length; i++) {
+            dependencies[i] = cellOf(formula.variables().get(i));
+            if (dependsOn(dependencies[i], cell)) {
+                throw new IllegalArgumentException("Error: cyclic reference from '" + name
+                        + "' through '" + dependencies[i].name + "'");
+            }
+        }
+        unlink(cell);
+        cell.formula = formula;
+        cell.dependencies = dependencies;
+        for (final var dependency : dependencies) {
+            dependency.dependents.add(cell);
+        }
+        recompute(List.of(cell));
+    }
+
+    /**
+     * @param name cell name
+     * @return value of the cell or typed error
+     */
+    public EvaluationResult get(final String name) {
+        final var cell = cells.get(name);
+        return cell != null ? cell.result : unbound(name);
+    }
+
+    /**
+     * @param name cell name
+     * @return value of the cell
+     * @throws IllegalStateException if the cell has no value
+     */
+    public double value(final String name) {
+        return switch (get(name)) {
+            case EvaluationResult.Value value -> value.value();
+            case EvaluationResult.Failure failure -> throw new IllegalStateException(failure.message());
+        };
+    }
+
+    /**
+     * @return total number of formula evaluations since the sheet was created
+     */
+    public long evaluations() {
+        return evaluations;
+    }
+
+    private Cell cellOf(final String name) {
+        return cells.computeIfAbsent(name, Cell::new);
+    }
+
+    private void unlink(final Cell cell) {
+        for (final var dependency : cell.dependencies) {
+            dependency.dependents.remove(cell);
+        }
+        cell.dependencies = Cell.NO_DEPENDENCIES;
+    }
+
+    /**
+     * @return whether {@code target} is {@code from} or one of its transitive dependencies
+     */
+    private static boolean dependsOn(final Cell from, final Cell target) {
+        final var visited = new HashSet<Cell>();
+        final var stack = new ArrayDeque<Cell>();
+        stack.push(from);
+        while (!stack.isEmpty()) {
+            final var cell = stack.pop();
+            if (cell == target) {
+                return true;
+            }
+            if (visited.add(cell)) {
+                Collections.addAll(stack, cell.dependencies);
+            }
+        }
+        return false;
+    }
+
+    private void recompute(final List<Cell> changed) {
+        for (final var cell : affectedInTopologicalOrder(changed)) {
+            if (cell.formula != null) {
+                cell.result = evaluate(cell);
+                evaluations++;
+            }
+        }
+    }
+
+    /**
+     * Depth-first search over the dependents, the reversed post-order of which is a topological order.
+     */
+    private static List<Cell> affectedInTopologicalOrder(final List<Cell> changed) {
+        final var order = new ArrayList<Cell>();
+        final var visited = new HashSet<Cell>();
+        final var stack = new ArrayDeque<Iterator<Cell>>();
+        final var path = new ArrayDeque<Cell>();
+        for (final var root : changed) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            path.push(root);
+            stack.push(root.dependents.iterator());
+            while (!stack.isEmpty()) {
+                final var dependents = stack.peek();
+                if (dependents.hasNext()) {
+                    final var next = dependents.next();
+                    if (visited.add(next)) {
+                        path.push(next);
+                        stack.push(next.dependents.iterator());
+                    }
+                } else {
+                    stack.pop();
+                    order.add(path.pop());
+                }
+            }
+        }
+        Collections.reverse(order);
+        return order;
+    }
+
+    private static EvaluationResult evaluate(final Cell cell) {
+        final var slots = new double[cell.dependencies.length];
+        for (int i = 0; i < slots.length; i++) {
+            switch (cell.dependencies[i].result) {
+                case EvaluationResult.Value value -> slots[i] = value.value();
+                case EvaluationResult.Failure failure -> {
+                    return failure;
+                }
+            }
+        }
+        return ExpressionParser.evaluate(cell.formula, slots);
+    }
+
+    private static EvaluationResult unbound(final String name) {
+        return new EvaluationResult.Failure(ErrorType.UNBOUND_VARIABLE, "Error: no value for variable '" + name + "'");
+    }
+
+    private static final class Cell {
+
+        private static final Cell[] NO_DEPENDENCIES = new Cell[0];
+
+        private final String name;
+        private final Set<Cell> dependents = new LinkedHashSet<>();
+        private Cell[] dependencies = NO_DEPENDENCIES;
+        private CompiledExpression formula;
+        private EvaluationResult result;
+
+        private Cell(final String name) {
+            this.name = name;
+            this.result = unbound(name);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.mehoil.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.mehoil.compiler.Backend;
+import ru.mehoil.operators.Associativity;
+import ru.mehoil.operators.FunctionDefinition;
+import ru.mehoil.operators.OperatorDefinition;
+import ru.mehoil.operators.OperatorRegistry;
+
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ExpressionCache} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class ExpressionCacheTest {
+
+    @Test
+    void testHitsAndMisses() {
+        final var cache = new ExpressionCache(100, 1_000);
+
+        final var first = cache.get("x + 1");
+        final var second = cache.get("x + 1");
+
+        assertSame(first, second);
+        assertEquals(new CacheStats(1, 1, 0, 1, 3), cache.stats());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void testWhitespacesAreNormalized() {
+        final var cache = new ExpressionCache(100, 1_000);
+
+        assertSame(cache.get("x+1"), cache.get("  x  +  1 "));
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test
+    void testWhitespacesBetweenOperatorSymbolsAreKept() {
+        final var registry = new OperatorRegistry()
+                .register(new OperatorDefinition.Infix("**", 4, Associativity.RIGHT, Math::pow));
+        final var cache = new ExpressionCache(100, 1_000, Backend.INTERPRETER, registry);
+
+        assertEquals(8.0, cache.get("2**3").evaluate());
+        assertEquals(8.0, cache.get("2 ** 3").evaluate());
+        assertThrows(IllegalArgumentException.class, () -> cache.get("2 * * 3"));
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedEntry() {
+        final var cache = new ExpressionCache(2, 1_000);
+
+        final var a = cache.get("a");
+        cache.get("b");
+        cache.get("a");
+        cache.get("c");
+
+        assertEquals(2, cache.stats().size());
+        assertEquals(1, cache.stats().evictions());
+        assertSame(a, cache.get("a"));
+        assertEquals(2, cache.stats().hits());
+    }
+
+    @Test
+    void testWeightBound() {
+        final var cache = new ExpressionCache(100, 9);
+
+        cache.get("a + b + c");
+        cache.get("d + e + f");
+
+        assertEquals(1, cache.stats().size());
+        assertEquals(5, cache.stats().weight());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testTooHeavyEntryIsNotCached() {
+        final var cache = new ExpressionCache(100, 2);
+
+        cache.get("a + b + c");
+
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void testLargeBounds() {
+        final var cache = new ExpressionCache(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+        assertEquals(3.0, cache.get("1+x").evaluate(2.0));
+        assertEquals(3.0, new ExpressionCache(Integer.MAX_VALUE, 1_000).get("1+x").evaluate(2.0));
+        assertEquals(1, cache.stats().size());
+        assertEquals(0, cache.stats().evictions());
+    }
+
+    @Test
+    void testRegisteringDefinitionInvalidatesEntries() {
+        final var registry = new OperatorRegistry().register(new FunctionDefinition.Unary("f", a -> a + 1));
+        final var cache = new ExpressionCache(100, 1_000, Backend.INTERPRETER, registry);
+
+        assertEquals(3.0, cache.get("f(x)").evaluate(2.0));
+        registry.register(new FunctionDefinition.Unary("f", a -> a * 10));
+
+        assertEquals(20.0, cache.get("f(x)").evaluate(2.0));
+        assertEquals(20.0, cache.get("f(x)").evaluate(2.0));
+        assertEquals(1, cache.stats().size());
+        assertEquals(2, cache.stats().misses());
+        assertEquals(2, cache.stats().weight());
+    }
+
+    @Test
+    void testInvalidExpressionIsNotCached() {
+        final var cache = new ExpressionCache(100, 1_000);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("(1 + 2"));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("(1 + 2"));
+
+        assertEquals(0, cache.stats().size());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        final var cache = new ExpressionCache(1_000, 100_000);
+        final int distinct = 50;
+
+        try (final var executor = Executors.newFixedThreadPool(8)) {
+            final var futures = IntStream.range(0, 10_000)
+                    .mapToObj(i -> executor.submit(() -> cache.get("x * " + i % distinct).evaluate(2.0)))
+                    .toList();
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(2.0 * (i % distinct), futures.get(i).get());
+            }
+        }
+
+        final var stats = cache.stats();
+        assertEquals(distinct, stats.size());
+        assertEquals(10_000, stats.hits() + stats.misses());
+        assertEquals(0, stats.evictions());
+    }
+}
@@ -0,0 +1,314 @@
+package ru.mehoil.compiler;
+
+import org.junit.jupiter.api.Test;
+import ru.mehoil.operators.Associativity;
+import ru.mehoil.operators.FunctionDefinition;
+import ru.mehoil.operators.OperatorDefinition;
+import ru.mehoil.operators.OperatorRegistry;
+import ru.mehoil.parsers.ExpressionParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link CompiledExpression} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class CompiledExpressionTest {
+
+    private static final double DELTA = 1e-10;
+
+    @Test
+    void testEvaluateConstantExpression() {
+        final var compiled = ExpressionParser.compile("4 + (10 * (20 - 19 * (30 + 1))) + 7 * (2 - 1)");
+
+        assertEquals(List.of(), compiled.variables());
+        assertEquals(-5679.0, compiled.evaluate());
+    }
+
+    @Test
+    void testVariablesAreSlottedInOrderOfAppearance() {
+        final var compiled = ExpressionParser.compile("b * a + sin(c) - a");
+
+        assertEquals(List.of("b", "a", "c"), compiled.variables());
+    }
+
+    @Test
+    void testEvaluateWithMap() {
+        final var compiled = ExpressionParser.compile("a + b * c");
+
+        assertEquals(7.0, compiled.evaluate(Map.of("a", 1.0, "b", 2.0, "c", 3.0)));
+        assertEquals(26.0, compiled.evaluate(Map.of("a", 2.0, "b", 4.0, "c", 6.0)));
+    }
+
+    @Test
+    void testEvaluateWithSlots() {
+        final var compiled = ExpressionParser.compile("x + sin(y)");
+
+        assertEquals(1.0, compiled.evaluate(1.0, 0.0), DELTA);
+        assertEquals(2.0 + Math.sin(3.0), compiled.evaluate(2.0, 3.0), DELTA);
+    }
+
+    @Test
+    void testMissingVariableValue() {
+        final var compiled = ExpressionParser.compile("x + y");
+
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluate(Map.of("x", 1.0)));
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluate(1.0));
+    }
+
+    @Test
+    void testInvalidExpressionFailsToCompile() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("1 + 2 - 3 +"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("(1 + 2"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("sin()"));
+    }
+
+    @Test
+    void testRuntimeErrors() {
+        final var division = ExpressionParser.compile("1 / x");
+        final var sqrt = ExpressionParser.compile("sqrt(x)");
+
+        assertThrows(ArithmeticException.class, () -> division.evaluate(0.0));
+        assertThrows(ArithmeticException.class, () -> sqrt.evaluate(-4.0));
+    }
+
+    @Test
+    void testConcurrentEvaluation() throws Exception {
+        final var compiled = ExpressionParser.compile("x * x + 2 * x + 1");
+
+        try (final var executor = Executors.newFixedThreadPool(4)) {
+            final var futures = IntStream.range(0, 1_000)
+                    .mapToObj(i -> executor.submit(() -> compiled.evaluate(i)))
+                    .toList();
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals((i + 1.0) * (i + 1.0), futures.get(i).get());
+            }
+        }
+    }
+
+    @Test
+    void testBytecodeBackendMatchesInterpreter() {
+        final var expression = "sqrt(x * x + y * y) + sin(x) * cos(y) - (x - 1) / (y + 2) + 0.5";
+        final var interpreted = ExpressionParser.compile(expression, Backend.INTERPRETER);
+        final var generated = ExpressionParser.compile(expression, Backend.BYTECODE);
+
+        assertEquals(Backend.INTERPRETER, interpreted.backend());
+        assertEquals(Backend.BYTECODE, generated.backend());
+        for (int x = -5; x <= 5; x++) {
+            for (int y = 0; y <= 5; y++) {
+                assertEquals(interpreted.evaluate(x, y), generated.evaluate(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testBytecodeBackendRuntimeErrors() {
+        final var division = ExpressionParser.compile("1 / x", Backend.BYTECODE);
+        final var sqrt = ExpressionParser.compile("sqrt(x)", Backend.BYTECODE);
+
+        assertThrows(ArithmeticException.class, () -> division.evaluate(0.0));
+        assertThrows(ArithmeticException.class, () -> sqrt.evaluate(-4.0));
+        assertThrows(IllegalArgumentException.class, division::evaluate);
+    }
+
+    @Test
+    void testBytecodeBackendFallsBackToInterpreter() {
+        final int terms = 20_000;
+        final var expression = "x" + " + x".repeat(terms - 1);
+
+        final var compiled = ExpressionParser.compile(expression, Backend.BYTECODE);
+
+        assertEquals(Backend.INTERPRETER, compiled.backend());
+        assertEquals(2.0 * terms, compiled.evaluate(2.0));
+    }
+
+    @Test
+    void testEvaluateBatchMatchesRowByRow() {
+        final int rows = 2_500;
+        final var x = new double[rows];
+        final var y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i * 0.5 - 300;
+            y[i] = i % 17 + 1;
+        }
+
+        for (final var backend : Backend.values()) {
+            final var compiled = ExpressionParser.compile("sqrt(x * x + y) * sin(x) - cos(y) / y + 3", backend);
+            final var output = new double[rows];
+            compiled.evaluateBatch(new double[][]{x, y}, output);
+
+            for (int i = 0; i < rows; i++) {
+                assertEquals(compiled.evaluate(x[i], y[i]), output[i], DELTA);
+            }
+        }
+    }
+
+    @Test
+    void testEvaluateBatchByName() {
+        final var compiled = ExpressionParser.compile("a + b * 2");
+        final var output = new double[3];
+
+        compiled.evaluateBatch(Map.of("a", new double[]{1, 2, 3}, "b", new double[]{10, 20, 30}), output);
+
+        assertArrayEquals(new double[]{21, 42, 63}, output);
+    }
+
+    @Test
+    void testEvaluateBatchErrors() {
+        final var compiled = ExpressionParser.compile("1 / x");
+
+        assertThrows(ArithmeticException.class,
+                () -> compiled.evaluateBatch(new double[][]{{1, 2, 0}}, new double[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> compiled.evaluateBatch(new double[][]{{1, 2}}, new double[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> compiled.evaluateBatch(Map.of(), new double[3]));
+    }
+
+    @Test
+    void testEvaluateGradient() {
+        final var compiled = ExpressionParser.compile("x * x * y + sin(x) / y - sqrt(y) + cos(2)");
+        final double x = 1.5;
+        final double y = 4.0;
+        final var gradient = new double[2];
+
+        final double value = compiled.evaluateGradient(new double[]{x, y}, gradient);
+
+        assertEquals(compiled.evaluate(x, y), value);
+        assertEquals(2 * x * y + Math.cos(x) / y, gradient[0], DELTA);
+        assertEquals(x * x - Math.sin(x) / (y * y) - 0.5 / Math.sqrt(y), gradient[1], DELTA);
+    }
+
+    @Test
+    void testGradientWithSharedSubexpressions() {
+        final var compiled = ExpressionParser.compile("sin(x * y) * sin(x * y) + cos(x * y)");
+        final double x = 0.7;
+        final double y = -1.3;
+        final var gradient = new double[2];
+
+        compiled.evaluateGradient(new double[]{x, y}, gradient);
+
+        final double u = x * y;
+        final double du = 2 * Math.sin(u) * Math.cos(u) - Math.sin(u);
+        assertEquals(du * y, gradient[0], DELTA);
+        assertEquals(du * x, gradient[1], DELTA);
+    }
+
+    @Test
+    void testGradientMatchesFiniteDifferences() {
+        final var compiled = ExpressionParser.compile("sqrt(a * a + b * b + 1) / (a - c + 10) * cos(b * c)");
+        final var slots = new double[]{0.3, -0.8, 1.7};
+        final var gradient = new double[3];
+        final double h = 1e-6;
+
+        compiled.evaluateGradient(slots, gradient);
+
+        for (int i = 0; i < slots.length; i++) {
+            final var plus = slots.clone();
+            final var minus = slots.clone();
+            plus[i] += h;
+            minus[i] -= h;
+            final double numeric = (compiled.evaluate(plus) - compiled.evaluate(minus)) / (2 * h);
+            assertEquals(numeric, gradient[i], 1e-6);
+        }
+    }
+
+    @Test
+    void testGradientOfConstantExpression() {
+        final var compiled = ExpressionParser.compile("2 + 3");
+        assertEquals(5.0, compiled.evaluateGradient(new double[0], new double[0]));
+    }
+
+    @Test
+    void testGradientErrors() {
+        final var compiled = ExpressionParser.compile("1 / x");
+
+        assertThrows(ArithmeticException.class, () -> compiled.evaluateGradient(new double[]{0}, new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluateGradient(new double[]{1}, new double[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> compiled.evaluateGradient(new double[]{1}, new double[1], new double[1]));
+    }
+
+    @Test
+    void testGradientOfNewBuiltins() {
+        final var compiled = ExpressionParser.compile("-x ^ y + max(x, y) * pow(y, 2)");
+        final var slots = new double[]{1.3, 2.1};
+        final var gradient = new double[2];
+        final double h = 1e-6;
+
+        compiled.evaluateGradient(slots, gradient);
+
+        for (int i = 0; i < slots.length; i++) {
+            final var plus = slots.clone();
+            final var minus = slots.clone();
+            plus[i] += h;
+            minus[i] -= h;
+            final double numeric = (compiled.evaluate(plus) - compiled.evaluate(minus)) / (2 * h);
+            assertEquals(numeric, gradient[i], 1e-5);
+        }
+    }
+
+    @Test
+    void testCustomOperationsOnEveryBackend() {
+        final var registry = new OperatorRegistry()
+                .register(new FunctionDefinition.Unary("twice", a -> 2 * a))
+                .register(new FunctionDefinition.Binary("hypot", Math::hypot))
+                .register(new OperatorDefinition.Infix("%", 2, Associativity.LEFT, (a, b) -> a % b));
+        final var expression = "hypot(x, y) + twice(x % 3)";
+        final var x = new double[]{3, 5, -7};
+        final var y = new double[]{4, 12, 24};
+
+        for (final var backend : Backend.values()) {
+            final var compiled = ExpressionParser.compile(expression, backend, registry);
+            final var batch = new double[x.length];
+            compiled.evaluateBatch(new double[][]{x, y}, batch);
+
+            assertEquals(backend, compiled.backend());
+            for (int i = 0; i < x.length; i++) {
+                final double expected = Math.hypot(x[i], y[i]) + 2 * (x[i] % 3);
+                assertEquals(expected, compiled.evaluate(x[i], y[i]), DELTA);
+                assertEquals(expected, batch[i], DELTA);
+            }
+        }
+    }
+
+    @Test
+    void testFunctionWithManyArgumentsUsesInterpreter() {
+        final var registry = new OperatorRegistry().register(new FunctionDefinition.Nary("avg", 3,
+                (args, from) -> (args[from] + args[from + 1] + args[from + 2]) / 3));
+        final var compiled = ExpressionParser.compile("1 + avg(x, 2 * x, 6)", Backend.BYTECODE, registry);
+        final var batch = new double[2];
+
+        compiled.evaluateBatch(new double[][]{{3, 6}}, batch);
+
+        assertEquals(Backend.INTERPRETER, compiled.backend());
+        assertEquals(6.0, compiled.evaluate(3.0));
+        assertArrayEquals(new double[]{6, 9}, batch);
+        assertThrows(UnsupportedOperationException.class,
+                () -> compiled.evaluateGradient(new double[]{1}, new double[1]));
+    }
+
+    @Test
+    void testFunctionMayEvaluateAnotherExpression() {
+        final var inner = ExpressionParser.compile("(a + b) * (a - b) + 1", Backend.INTERPRETER);
+        final var registry = new OperatorRegistry()
+                .register(new FunctionDefinition.Unary("square", a -> inner.evaluate(a, 0)))
+                .register(new FunctionDefinition.Nary("diff", 3,
+                        (args, from) -> inner.evaluate(args[from], args[from + 1]) + args[from + 2]));
+        final var compiled = ExpressionParser.compile("2 * square(x) + diff(x, 1, square(3))",
+                Backend.INTERPRETER, registry);
+
+        final double expected = 2 * (4 * 4 + 1) + (4 * 4 - 1 + 1) + (3 * 3 + 1);
+        assertEquals(expected, compiled.evaluate(4.0), DELTA);
+        assertEquals(expected, compiled.evaluate(4.0), DELTA);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.mehoil.compiler;
+
+import org.junit.jupiter.api.Test;
+import ru.mehoil.operators.FunctionDefinition;
+import ru.mehoil.operators.OperatorRegistry;
+import ru.mehoil.parsers.ExpressionLexer;
+import ru.mehoil.parsers.ExpressionParser;
+import ru.mehoil.parsers.ShuntingYardParser;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link ExpressionOptimizer} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class ExpressionOptimizerTest {
+
+    @Test
+    void testFoldsConstantSubexpressions() {
+        final var compiled = ExpressionParser.compile("2 * 3.14159 * r");
+
+        assertEquals(3, compiled.size());
+        assertEquals(new OptimizationReport(5, 3, 1, 0, 0), compiled.optimization());
+        assertEquals(2 * 3.14159 * 2.0, compiled.evaluate(2.0));
+    }
+
+    @Test
+    void testFoldsFunctions() {
+        final var compiled = ExpressionParser.compile("sqrt(16) * x + cos(0)");
+
+        assertEquals(5, compiled.size());
+        assertEquals(2, compiled.optimization().foldedOperations());
+        assertEquals(13.0, compiled.evaluate(3.0));
+    }
+
+    @Test
+    void testFoldsWholeExpression() {
+        final var compiled = ExpressionParser.compile("4 + (10 * (20 - 19 * (30 + 1))) + 7 * (2 - 1)");
+
+        assertEquals(1, compiled.size());
+        assertEquals(16, compiled.optimization().removedOperations());
+        assertEquals(-5679.0, compiled.evaluate());
+    }
+
+    @Test
+    void testEliminatesIdentities() {
+        final var compiled = ExpressionParser.compile("(x * 1) / 1 - 0 + 1 * y ^ 1");
+
+        assertEquals(3, compiled.size());
+        assertEquals(5, compiled.optimization().eliminatedIdentities());
+        assertEquals(5.0, compiled.evaluate(2.0, 3.0));
+    }
+
+    @Test
+    void testAddingZeroIsKeptForNegativeZero() {
+        for (final var expression : new String[]{"x + 0", "0 + x", "x - (0 - 0) * -1"}) {
+            final var compiled = ExpressionParser.compile(expression);
+
+            assertEquals(0, compiled.optimization().eliminatedIdentities(), expression);
+            assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(compiled.evaluate(-0.0)), expression);
+        }
+        assertEquals(Double.doubleToLongBits(-0.0),
+                Double.doubleToLongBits(ExpressionParser.compile("x - 0").evaluate(-0.0)));
+    }
+
+    @Test
+    void testIdentityMadeOfFoldedConstants() {
+        final var compiled = ExpressionParser.compile("x * (3 - 2)");
+
+        assertEquals(1, compiled.size());
+        assertEquals(7.0, compiled.evaluate(7.0));
+    }
+
+    @Test
+    void testSharesCommonSubexpressions() {
+        final var compiled = ExpressionParser.compile("sin(x + y) * sin(x + y) + cos(x + y)");
+
+        assertEquals(new OptimizationReport(14, 11, 0, 0, 2), compiled.optimization());
+        final double s = 1.5;
+        assertEquals(Math.sin(s) * Math.sin(s) + Math.cos(s), compiled.evaluate(0.5, 1.0));
+    }
+
+    @Test
+    void testFailingOperationsAreNotFolded() {
+        final var division = ExpressionParser.compile("x + 1 / 0");
+        final var sqrt = ExpressionParser.compile("sqrt(1 - 5)");
+
+        assertThrows(ArithmeticException.class, () -> division.evaluate(1.0));
+        assertThrows(ArithmeticException.class, sqrt::evaluate);
+    }
+
+    @Test
+    void testOptimizedMatchesUnoptimizedOnEveryBackend() {
+        final var expression = "sqrt(x * x + y * y) * (x * x + y * y) + sin(x * x) / (y + 1) - 2 * 3 * x * 1";
+        final var rpn = ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize(expression));
+        final var reference = ExpressionCompiler.compile(rpn, Backend.INTERPRETER, false);
+        final var x = new double[64];
+        final var y = new double[64];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i * 0.25 - 8;
+            y[i] = i % 7;
+        }
+
+        for (final var backend : Backend.values()) {
+            final var optimized = ExpressionParser.compile(expression, backend);
+            final var batch = new double[x.length];
+            optimized.evaluateBatch(new double[][]{x, y}, batch);
+            for (int i = 0; i < x.length; i++) {
+                final double expected = reference.evaluate(x[i], y[i]);
+                assertEquals(expected, optimized.evaluate(x[i], y[i]), 1e-9);
+                assertEquals(expected, batch[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testFoldsNewBuiltins() {
+        final var compiled = ExpressionParser.compile("x * pow(2, 3) + -max(1, 4) + 2 ^ -1");
+
+        assertEquals(new OptimizationReport(15, 7, 5, 0, 0), compiled.optimization());
+        assertEquals(8 - 4 + 0.5, compiled.evaluate(1.0));
+    }
+
+    @Test
+    void testCustomFunctionsAreNeitherFoldedNorShared() {
+        final var calls = new AtomicInteger();
+        final var registry = new OperatorRegistry()
+                .register(new FunctionDefinition.Unary("tick", x -> x + calls.incrementAndGet()));
+        final var compiled = ExpressionParser.compile("tick(1) + tick(1)", Backend.INTERPRETER, registry);
+
+        assertEquals(0, compiled.optimization().removedOperations());
+        assertEquals(5.0, compiled.evaluate());
+        assertEquals(2, calls.get());
+    }
+}
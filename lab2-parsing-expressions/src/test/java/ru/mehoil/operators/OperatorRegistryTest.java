@@ -0,0 +1,68 @@
+package ru.mehoil.operators;
+
+import org.junit.jupiter.api.Test;
+import ru.mehoil.compiler.Backend;
+import ru.mehoil.data.EvaluationResult;
+import ru.mehoil.parsers.ExpressionParser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link OperatorRegistry} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class OperatorRegistryTest {
+
+    @Test
+    void testBuiltins() {
+        assertEquals(new EvaluationResult.Value(-4.0), ExpressionParser.evaluate("-2 ^ 2"));
+        assertEquals(new EvaluationResult.Value(4.0), ExpressionParser.evaluate("(-2) ^ 2"));
+        assertEquals(new EvaluationResult.Value(512.0), ExpressionParser.evaluate("2 ^ 3 ^ 2"));
+        assertEquals(new EvaluationResult.Value(-6.0), ExpressionParser.evaluate("3 * -2"));
+        assertEquals(new EvaluationResult.Value(1.0), ExpressionParser.evaluate("- -1"));
+        assertEquals(new EvaluationResult.Value(7.0), ExpressionParser.evaluate("max(min(7, 9), pow(2, 2)) "));
+    }
+
+    @Test
+    void testLookup() {
+        final var registry = new OperatorRegistry();
+
+        assertSame(Builtins.MAX, registry.function("max"));
+        assertSame(Builtins.NEGATE, registry.prefixOperator("-"));
+        assertSame(Builtins.SUBTRACT, registry.infixOperator("-"));
+        assertNull(registry.function("hypot"));
+        assertNull(registry.prefixOperator("+"));
+    }
+
+    @Test
+    void testCustomPrecedence() {
+        final var registry = new OperatorRegistry()
+                .register(new OperatorDefinition.Infix("<<", 0, Associativity.LEFT, (a, b) -> a * Math.pow(2, b)))
+                .register(new OperatorDefinition.Prefix("~", 5, a -> 1 / a));
+
+        assertEquals(24.0, ExpressionParser.compile("1 + 2 << 3", Backend.INTERPRETER, registry).evaluate());
+        assertEquals(0.25, ExpressionParser.compile("~2 ^ 2", Backend.INTERPRETER, registry).evaluate());
+    }
+
+    @Test
+    void testRegistriesAreIndependent() {
+        new OperatorRegistry().register(new FunctionDefinition.Unary("twice", a -> 2 * a));
+
+        assertNull(OperatorRegistry.defaultRegistry().function("twice"));
+        assertEquals(new EvaluationResult.Value(0.0), ExpressionParser.evaluate("twice", 0.0));
+    }
+
+    @Test
+    void testInvalidDefinitions() {
+        assertThrows(IllegalArgumentException.class, () -> new FunctionDefinition.Unary("2x", a -> a));
+        assertThrows(IllegalArgumentException.class, () -> new FunctionDefinition.Nary("f", 0, (args, from) -> 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OperatorDefinition.Infix("a", 1, Associativity.LEFT, (a, b) -> a));
+        assertThrows(IllegalArgumentException.class, () -> new OperatorDefinition.Prefix("(", 1, a -> a));
+    }
+}
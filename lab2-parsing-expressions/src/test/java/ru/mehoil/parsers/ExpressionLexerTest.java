@@ -0,0 +1,108 @@
+package ru.mehoil.parsers;
+
+import org.junit.jupiter.api.Test;
+import ru.mehoil.data.Token;
+import ru.mehoil.data.TokenType;
+import ru.mehoil.operators.Associativity;
+import ru.mehoil.operators.OperatorDefinition;
+import ru.mehoil.operators.OperatorRegistry;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ExpressionLexer} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class ExpressionLexerTest {
+
+    @Test
+    void testTokenizeWithPositions() {
+        final var expected = List.of(
+                new Token(TokenType.NUMBER, "2.5", 0),
+                new Token(TokenType.OPERATOR, "*", 4),
+                new Token(TokenType.FUNCTION, "sin", 6),
+                new Token(TokenType.LEFT_PAREN, "(", 9),
+                new Token(TokenType.VARIABLE, "x1", 10),
+                new Token(TokenType.OPERATOR, "-", 12),
+                new Token(TokenType.NUMBER, "3", 13),
+                new Token(TokenType.RIGHT_PAREN, ")", 14),
+                new Token(TokenType.OPERATOR, "/", 16),
+                new Token(TokenType.VARIABLE, "y", 18)
+        );
+        assertEquals(expected, ExpressionLexer.tokenize("2.5 * sin(x1-3) / y"));
+    }
+
+    @Test
+    void testWhitespacesInsideNumbersAndNames() {
+        final var expected = List.of(
+                new Token(TokenType.NUMBER, "100", 0),
+                new Token(TokenType.OPERATOR, "+", 6),
+                new Token(TokenType.NUMBER, "123.4", 9),
+                new Token(TokenType.OPERATOR, "*", 26),
+                new Token(TokenType.FUNCTION, "sqrt", 28)
+        );
+        assertEquals(expected, ExpressionLexer.tokenize("1 0 0 +  1  2  3  .     4 * s q r t"));
+    }
+
+    @Test
+    void testNumberFollowedByName() {
+        final var expected = List.of(
+                new Token(TokenType.NUMBER, "2", 0),
+                new Token(TokenType.VARIABLE, "x", 1)
+        );
+        assertEquals(expected, ExpressionLexer.tokenize("2x"));
+    }
+
+    @Test
+    void testEmptyExpression() {
+        assertTrue(ExpressionLexer.tokenize("   ").isEmpty());
+    }
+
+    @Test
+    void testUnexpectedCharacterReportsPosition() {
+        final var e = assertThrows(IllegalArgumentException.class, () -> ExpressionLexer.tokenize("1 + 2 # 3"));
+        assertEquals("Error: unexpected character '#' at position 6", e.getMessage());
+    }
+
+    @Test
+    void testDanglingDecimalPoint() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionLexer.tokenize("1. + 2"));
+    }
+
+    @Test
+    void testUnaryMinusAndCommas() {
+        final var expected = List.of(
+                new Token(TokenType.UNARY_OPERATOR, "-", 0),
+                new Token(TokenType.FUNCTION, "max", 1),
+                new Token(TokenType.LEFT_PAREN, "(", 4),
+                new Token(TokenType.VARIABLE, "x", 5),
+                new Token(TokenType.COMMA, ",", 6),
+                new Token(TokenType.UNARY_OPERATOR, "-", 8),
+                new Token(TokenType.NUMBER, "2", 9),
+                new Token(TokenType.RIGHT_PAREN, ")", 10),
+                new Token(TokenType.OPERATOR, "-", 12),
+                new Token(TokenType.NUMBER, "1", 14)
+        );
+        assertEquals(expected, ExpressionLexer.tokenize("-max(x, -2) - 1"));
+    }
+
+    @Test
+    void testCustomOperatorIsMatchedGreedily() {
+        final var registry = new OperatorRegistry()
+                .register(new OperatorDefinition.Infix("**", 4, Associativity.RIGHT, Math::pow));
+        final var expected = List.of(
+                new Token(TokenType.VARIABLE, "x", 0),
+                new Token(TokenType.OPERATOR, "**", 1),
+                new Token(TokenType.NUMBER, "2", 3),
+                new Token(TokenType.OPERATOR, "*", 4),
+                new Token(TokenType.NUMBER, "3", 5)
+        );
+        assertEquals(expected, ExpressionLexer.tokenize("x**2*3", registry));
+    }
+}
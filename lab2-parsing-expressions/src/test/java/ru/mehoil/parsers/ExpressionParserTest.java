@@ -3,9 +3,16 @@ package ru.mehoil.parsers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import ru.mehoil.data.ErrorType;
+import ru.mehoil.data.EvaluationResult;
+
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 /**
@@ -263,4 +270,46 @@ class ExpressionParserTest {
         assertEquals(expected, result);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testEvaluateWithMap() {
+        final var result = ExpressionParser.evaluate("a + b * c", Map.of("a", 1.0, "b", 2.0, "c", 3.0));
+        assertEquals(new EvaluationResult.Value(7.0), result);
+    }
+
+    @Test
+    void testEvaluateWithSlots() {
+        final var result = ExpressionParser.evaluate("y - x", 1.0, 5.0);
+        assertEquals(new EvaluationResult.Value(-4.0), result);
+    }
+
+    @Test
+    void testEvaluateWithResolver() {
+        final var requested = new ArrayList<String>();
+        final var result = ExpressionParser.evaluate("x * x + y", name -> {
+            requested.add(name);
+            return name.equals("x") ? 3.0 : 1.0;
+        });
+
+        assertEquals(new EvaluationResult.Value(10.0), result);
+        assertEquals(List.of("x", "y"), requested);
+    }
+
+    @Test
+    void testEvaluateTypedErrors() {
+        assertErrorType(ErrorType.SYNTAX, ExpressionParser.evaluate("1 + 2 - 3 +"));
+        assertErrorType(ErrorType.SYNTAX, ExpressionParser.evaluate("(1 + 2"));
+        assertErrorType(ErrorType.ARITHMETIC, ExpressionParser.evaluate("99.9 / 0"));
+        assertErrorType(ErrorType.ARITHMETIC, ExpressionParser.evaluate("sqrt(x)", -4.0));
+        assertErrorType(ErrorType.UNBOUND_VARIABLE, ExpressionParser.evaluate("x + y", Map.of("x", 1.0)));
+        assertErrorType(ErrorType.UNBOUND_VARIABLE, ExpressionParser.evaluate("x + y", 1.0));
+        assertErrorType(ErrorType.INVALID_VALUE, ExpressionParser.evaluate("x", name -> {
+            throw new IllegalStateException();
+        }));
+    }
+
+    private static void assertErrorType(final ErrorType expected, final EvaluationResult result) {
+        final var failure = assertInstanceOf(EvaluationResult.Failure.class, result);
+        assertEquals(expected, failure.type());
+    }
+
+}
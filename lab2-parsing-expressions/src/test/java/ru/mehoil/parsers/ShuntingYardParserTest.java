@@ -5,6 +5,7 @@ import ru.mehoil.data.Token;
 import ru.mehoil.data.TokenType;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -108,4 +109,50 @@ class ShuntingYardParserTest {
         );
         assertEquals(expected, ShuntingYardParser.parseArithmeticalExpression(tokens));
     }
+
+    @Test
+    public void testPowerIsRightAssociativeAndBindsTighterThanUnaryMinus() {
+        final var tokens = ExpressionLexer.tokenize("-2 ^ 3 ^ 2");
+        final var expected = List.of(
+                new Token(TokenType.NUMBER, "2", 1),
+                new Token(TokenType.NUMBER, "3", 5),
+                new Token(TokenType.NUMBER, "2", 9),
+                new Token(TokenType.OPERATOR, "^", 7),
+                new Token(TokenType.OPERATOR, "^", 3),
+                new Token(TokenType.UNARY_OPERATOR, "-", 0)
+        );
+        final var parsed = ShuntingYardParser.parseArithmeticalExpression(tokens);
+
+        assertEquals(expected, parsed);
+        assertEquals(-512.0, ShuntingYardParser.solveParsedExpression(parsed, Map.of()));
+    }
+
+    @Test
+    public void testFunctionWithSeveralArguments() {
+        final var parsed = ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize("max(1, 2 * 3) - pow(2, 3)"));
+        assertEquals(-2.0, ShuntingYardParser.solveParsedExpression(parsed, Map.of()));
+    }
+
+    @Test
+    public void testWrongArgumentCount() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize("max(1, 2, 3)")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize("sin(1, 2)")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize("(1, 2)")));
+    }
+
+    @Test
+    public void testEmptyArgumentListIsCountedAsNoArguments() {
+        final var exception = assertThrows(IllegalArgumentException.class,
+                () -> ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize("max()")));
+        assertEquals("Error: function 'max' takes 2 argument(s), got 0", exception.getMessage());
+
+        final var nested = assertThrows(IllegalArgumentException.class,
+                () -> ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize("sin(max())")));
+        assertEquals("Error: function 'max' takes 2 argument(s), got 0", nested.getMessage());
+        assertEquals(3.0, ShuntingYardParser.solveParsedExpression(
+                ShuntingYardParser.parseArithmeticalExpression(ExpressionLexer.tokenize("max((1), ((3)))")), Map.of()));
+    }
 }
@@ -0,0 +1,47 @@
+package ru.mehoil.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link LineReader} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class LineReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLinesLongerThanBuffer() throws IOException {
+        final var file = directory.resolve("input.txt");
+        Files.writeString(file, "1 + 2\r\n\nsqrt(16) * 100000\nπ + 1");
+
+        try (final var reader = new LineReader(file, 4)) {
+            assertEquals(List.of("1 + 2", ""), reader.readLines(2));
+            assertEquals(List.of("sqrt(16) * 100000", "π + 1"), reader.readLines(10));
+            assertTrue(reader.readLines(10).isEmpty());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        final var file = Files.createFile(directory.resolve("empty.txt"));
+
+        try (final var reader = new LineReader(file, 16)) {
+            assertNull(reader.readLine());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.mehoil.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.mehoil.service.EvaluationService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link StreamingEvaluator} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class StreamingEvaluatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testExpressionsKeepInputOrder() throws IOException {
+        final int lines = 50_000;
+        final var input = directory.resolve("expressions.txt");
+        final var output = directory.resolve("results.txt");
+        Files.writeString(input, IntStream.range(0, lines)
+                .mapToObj(i -> i + " * " + i % 7)
+                .collect(Collectors.joining("\n", "", "\n")));
+
+        try (final var service = new EvaluationService(); final var evaluator = new StreamingEvaluator(service, 4, 1_000)) {
+            final var stats = evaluator.evaluateExpressions(input, output);
+
+            assertEquals(lines, stats.lines());
+            assertEquals(0, stats.failures());
+        }
+        final var results = Files.readAllLines(output);
+        assertEquals(lines, results.size());
+        for (int i = 0; i < lines; i++) {
+            assertEquals(String.valueOf((double) i * (i % 7)), results.get(i));
+        }
+    }
+
+    @Test
+    void testExpressionErrorsAndBlankLines() throws IOException {
+        final var input = directory.resolve("expressions.txt");
+        final var output = directory.resolve("results.txt");
+        Files.writeString(input, "1 / 0\n\n(1 + 2\nx * 2\n");
+
+        try (final var service = new EvaluationService(); final var evaluator = new StreamingEvaluator(service, 2, 1)) {
+            final var stats = evaluator.evaluateExpressions(input, output, Map.of("x", 21.0));
+
+            assertEquals(3, stats.lines());
+            assertEquals(2, stats.failures());
+        }
+        assertEquals(List.of("Error: division by zero", "", "Error: unbalanced brackets", "42.0"),
+                Files.readAllLines(output));
+    }
+
+    @Test
+    void testRowsAreEvaluatedByHeader() throws IOException {
+        final int rows = 20_000;
+        final var input = directory.resolve("rows.csv");
+        final var output = directory.resolve("results.txt");
+        Files.writeString(input, IntStream.range(0, rows)
+                .mapToObj(i -> i + ", " + (i % 5) + ", unused")
+                .collect(Collectors.joining("\n", "y, x, comment\n", "\n")));
+
+        try (final var service = new EvaluationService(); final var evaluator = new StreamingEvaluator(service, 4, 512)) {
+            final var stats = evaluator.evaluateRows("x * 10 + y", input, output);
+
+            assertEquals(rows, stats.lines());
+            assertEquals(0, stats.failures());
+        }
+        final var results = Files.readAllLines(output);
+        assertEquals(rows, results.size());
+        for (int i = 0; i < rows; i++) {
+            assertEquals(String.valueOf((i % 5) * 10.0 + i), results.get(i));
+        }
+    }
+
+    @Test
+    void testRowErrors() throws IOException {
+        final var input = directory.resolve("rows.csv");
+        final var output = directory.resolve("results.txt");
+        Files.writeString(input, "a,b\n1,2\n1,0\nabc,1\n3\n\n6,3\n");
+
+        try (final var service = new EvaluationService(); final var evaluator = new StreamingEvaluator(service, 2, 100)) {
+            final var stats = evaluator.evaluateRows("a / b", input, output);
+
+            assertEquals(5, stats.lines());
+            assertEquals(3, stats.failures());
+        }
+        assertEquals(List.of(
+                "0.5",
+                "Error: division by zero",
+                "Error: invalid number in 'abc,1'",
+                "Error: expected at least 2 values",
+                "",
+                "2.0"
+        ), Files.readAllLines(output));
+    }
+
+    @Test
+    void testMissingColumn() throws IOException {
+        final var input = directory.resolve("rows.csv");
+        Files.writeString(input, "a\n1\n");
+
+        try (final var service = new EvaluationService(); final var evaluator = new StreamingEvaluator(service)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> evaluator.evaluateRows("a + b", input, directory.resolve("results.txt")));
+        }
+    }
+}
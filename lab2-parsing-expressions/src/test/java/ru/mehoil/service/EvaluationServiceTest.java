@@ -0,0 +1,86 @@
+package ru.mehoil.service;
+
+import org.junit.jupiter.api.Test;
+import ru.mehoil.cache.ExpressionCache;
+import ru.mehoil.data.ErrorType;
+import ru.mehoil.data.EvaluationResult;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link EvaluationService} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class EvaluationServiceTest {
+
+    @Test
+    void testEvaluateSingleJob() {
+        try (final var service = new EvaluationService()) {
+            final var result = service.evaluate(new EvaluationJob("a + b * c", Map.of("a", 1.0, "b", 2.0, "c", 3.0)));
+            assertEquals(new EvaluationResult.Value(7.0), result);
+        }
+    }
+
+    @Test
+    void testSyntaxErrorIsReported() {
+        try (final var service = new EvaluationService()) {
+            final var result = service.evaluate(new EvaluationJob("(1 + 2", Map.of()));
+            final var failure = assertInstanceOf(EvaluationResult.Failure.class, result);
+            assertEquals(ErrorType.SYNTAX, failure.type());
+        }
+    }
+
+    @Test
+    void testEvaluateAllKeepsOrder() {
+        final int jobs = 20_000;
+        final var cache = new ExpressionCache(100, 10_000);
+        try (final var service = new EvaluationService(cache, 4)) {
+            final var report = service.evaluateAll(IntStream.range(0, jobs).mapToObj(i ->
+                    new EvaluationJob("x * " + i % 10 + " + y", Map.of("x", (double) i, "y", 1.0))
+            ));
+
+            assertEquals(jobs, report.results().size());
+            for (int i = 0; i < jobs; i++) {
+                assertEquals(new EvaluationResult.Value((double) i * (i % 10) + 1), report.results().get(i));
+            }
+            assertEquals(jobs, report.stats().jobs());
+            assertEquals(0, report.stats().failures());
+            assertEquals(10, cache.stats().size());
+        }
+    }
+
+    @Test
+    void testEvaluateAllStats() {
+        try (final var service = new EvaluationService()) {
+            final var report = service.evaluateAll(Stream.of(
+                    new EvaluationJob("1 + 1", Map.of()),
+                    new EvaluationJob("1 / 0", Map.of()),
+                    new EvaluationJob("x", Map.of())
+            ));
+
+            final var stats = report.stats();
+            assertEquals(3, stats.jobs());
+            assertEquals(2, stats.failures());
+            assertTrue(stats.p50Nanos() <= stats.p90Nanos());
+            assertTrue(stats.p90Nanos() <= stats.p99Nanos());
+            assertTrue(stats.p99Nanos() <= stats.maxNanos());
+            assertTrue(stats.throughput() > 0);
+        }
+    }
+
+    @Test
+    void testEvaluateNoJobs() {
+        try (final var service = new EvaluationService()) {
+            final var report = service.evaluateAll(Stream.empty());
+
+            assertTrue(report.results().isEmpty());
+            assertEquals(0, report.stats().maxNanos());
+        }
+    }
+}
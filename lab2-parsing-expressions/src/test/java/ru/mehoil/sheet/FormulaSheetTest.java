@@ -0,0 +1,145 @@
+package ru.mehoil.sheet;
+
+import org.junit.jupiter.api.Test;
+import ru.mehoil.data.ErrorType;
+import ru.mehoil.data.EvaluationResult;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link FormulaSheet} tests.
+ *
+ * @author Mikhail Dorokhov
+ * @since 0.0.2
+ */
+class FormulaSheetTest {
+
+    @Test
+    void testFormulasReferToOtherCells() {
+        final var sheet = new FormulaSheet();
+        sheet.set("a", 2);
+        sheet.set("b", 3);
+        sheet.define("sum", "a + b");
+        sheet.define("square", "sum * sum");
+
+        assertEquals(5.0, sheet.value("sum"));
+        assertEquals(25.0, sheet.value("square"));
+    }
+
+    @Test
+    void testOnlyAffectedFormulasAreReevaluated() {
+        final var sheet = new FormulaSheet();
+        sheet.set("x", 1);
+        sheet.set("y", 1);
+        sheet.define("fx", "x * 2");
+        sheet.define("fy", "y * 3");
+        sheet.define("gx", "fx + 1");
+        final long before = sheet.evaluations();
+
+        sheet.set("x", 10);
+
+        assertEquals(2, sheet.evaluations() - before);
+        assertEquals(21.0, sheet.value("gx"));
+        assertEquals(3.0, sheet.value("fy"));
+    }
+
+    @Test
+    void testDiamondIsEvaluatedOnceInTopologicalOrder() {
+        final var sheet = new FormulaSheet();
+        sheet.set("a", 1);
+        sheet.define("top", "left + right");
+        sheet.define("left", "a * 2");
+        sheet.define("right", "a + left");
+        final long before = sheet.evaluations();
+
+        sheet.set("a", 5);
+
+        assertEquals(3, sheet.evaluations() - before);
+        assertEquals(10.0, sheet.value("left"));
+        assertEquals(15.0, sheet.value("right"));
+        assertEquals(25.0, sheet.value("top"));
+    }
+
+    @Test
+    void testSetAllReevaluatesSharedDependentsOnce() {
+        final var sheet = new FormulaSheet();
+        sheet.setAll(Map.of("a", 1.0, "b", 2.0));
+        sheet.define("c", "a * b");
+        final long before = sheet.evaluations();
+
+        sheet.setAll(Map.of("a", 3.0, "b", 4.0));
+
+        assertEquals(1, sheet.evaluations() - before);
+        assertEquals(12.0, sheet.value("c"));
+    }
+
+    @Test
+    void testUndefinedReferenceIsResolvedLater() {
+        final var sheet = new FormulaSheet();
+        sheet.define("y", "x + 1");
+
+        final var failure = assertInstanceOf(EvaluationResult.Failure.class, sheet.get("y"));
+        assertEquals(ErrorType.UNBOUND_VARIABLE, failure.type());
+
+        sheet.set("x", 41);
+        assertEquals(42.0, sheet.value("y"));
+    }
+
+    @Test
+    void testErrorsPropagateToDependents() {
+        final var sheet = new FormulaSheet();
+        sheet.set("d", 0);
+        sheet.define("q", "1 / d");
+        sheet.define("r", "q + 1");
+
+        final var failure = assertInstanceOf(EvaluationResult.Failure.class, sheet.get("r"));
+        assertEquals(ErrorType.ARITHMETIC, failure.type());
+
+        sheet.set("d", 4);
+        assertEquals(1.25, sheet.value("r"));
+    }
+
+    @Test
+    void testRedefinitionChangesDependencies() {
+        final var sheet = new FormulaSheet();
+        sheet.set("a", 1);
+        sheet.set("b", 2);
+        sheet.define("c", "a * 10");
+        sheet.define("c", "b * 10");
+        final long before = sheet.evaluations();
+
+        sheet.set("a", 100);
+
+        assertEquals(0, sheet.evaluations() - before);
+        assertEquals(20.0, sheet.value("c"));
+    }
+
+    @Test
+    void testFormulaReplacedByInput() {
+        final var sheet = new FormulaSheet();
+        sheet.set("a", 1);
+        sheet.define("b", "a + 1");
+        sheet.define("c", "b * 2");
+
+        sheet.set("b", 10);
+        sheet.set("a", 5);
+
+        assertEquals(10.0, sheet.value("b"));
+        assertEquals(20.0, sheet.value("c"));
+    }
+
+    @Test
+    void testCyclicReferencesAreRejected() {
+        final var sheet = new FormulaSheet();
+        sheet.define("a", "b + 1");
+        sheet.define("b", "c + 1");
+
+        assertThrows(IllegalArgumentException.class, () -> sheet.define("c", "a + 1"));
+        assertThrows(IllegalArgumentException.class, () -> sheet.define("d", "d + 1"));
+
+        sheet.set("c", 1);
+        assertEquals(3.0, sheet.value("a"));
+    }
+}